@@ -0,0 +1,53 @@
+package com.pastagem.config;
+
+import java.util.Set;
+
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
+import org.springframework.stereotype.Component;
+
+/**
+ * Impede a subida em produção quando o Hibernate ainda pode alterar o esquema
+ * ({@code ddl-auto} diferente de {@code none}/{@code validate}) ou quando o Flyway
+ * foi desligado. Roda como {@link BeanFactoryPostProcessor} para falhar antes de o
+ * EntityManagerFactory existir, ou seja, antes de qualquer DDL ser executado.
+ */
+@Component
+public class VerificacaoEsquemaProducao implements BeanFactoryPostProcessor, EnvironmentAware {
+
+    private static final Profiles PRODUCAO = Profiles.of("prod | production");
+    private static final Set<String> DDL_PERMITIDOS = Set.of("none", "validate");
+
+    private Environment environment;
+
+    @Override
+    public void setEnvironment(Environment environment) {
+        this.environment = environment;
+    }
+
+    @Override
+    public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) {
+        if (!environment.acceptsProfiles(PRODUCAO)) {
+            return;
+        }
+
+        verificarDdlAuto("spring.jpa.hibernate.ddl-auto");
+        verificarDdlAuto("spring.jpa.properties.hibernate.hbm2ddl.auto");
+
+        if (!environment.getProperty("spring.flyway.enabled", Boolean.class, true)) {
+            throw new IllegalStateException("spring.flyway.enabled=false não é permitido em produção: "
+                + "o esquema deve ser aplicado pelas migrações");
+        }
+    }
+
+    private void verificarDdlAuto(String propriedade) {
+        String valor = environment.getProperty(propriedade);
+        if (valor != null && !DDL_PERMITIDOS.contains(valor.trim().toLowerCase())) {
+            throw new IllegalStateException(propriedade + "=" + valor + " não é permitido em produção: "
+                + "use validate ou none e altere o esquema por uma migração em db/migration");
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.pastagem.config.logging;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Conta os comandos SQL preparados pelo Hibernate na thread atual, para o
+ * resumo de cada requisição. Registrado em
+ * {@code spring.jpa.properties.hibernate.session_factory.statement_inspector}.
+ *
+ * Consultas feitas direto por {@code JdbcTemplate} não passam por aqui.
+ */
+public class ContadorConsultas implements StatementInspector {
+
+    private static final ThreadLocal<int[]> CONTADOR = ThreadLocal.withInitial(() -> new int[1]);
+
+    @Override
+    public String inspect(String sql) {
+        CONTADOR.get()[0]++;
+        return sql;
+    }
+
+    public static void zerar() {
+        CONTADOR.get()[0] = 0;
+    }
+
+    public static int total() {
+        return CONTADOR.get()[0];
+    }
+}
@@ -0,0 +1,41 @@
+package com.pastagem.config.logging;
+
+import java.util.regex.Pattern;
+
+import ch.qos.logback.classic.pattern.MessageConverter;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+
+/**
+ * Substitui o {@code %msg} do logback mascarando tokens e segredos: cabeçalhos
+ * {@code Bearer}, JWTs e pares {@code chave=valor} como senha, secret e refreshToken.
+ *
+ * A maioria das mensagens não contém nenhum desses marcadores, então as
+ * expressões regulares só rodam quando uma verificação simples encontra algum.
+ */
+public class MascaraSegredosConverter extends MessageConverter {
+
+    private static final Pattern BEARER = Pattern.compile("(?i)(bearer\\s+)[A-Za-z0-9._~+/=-]+");
+    private static final Pattern JWT = Pattern.compile("eyJ[A-Za-z0-9_-]*\\.[A-Za-z0-9_-]+\\.[A-Za-z0-9_-]*");
+    private static final Pattern CHAVE_VALOR = Pattern.compile(
+            "(?i)((?:password|senha|secret|clientsecret|refreshtoken|accesstoken|idtoken|secret_hash)\"?\\s*[=:]\\s*\"?)[^\\s,\"}&]+");
+
+    @Override
+    public String convert(ILoggingEvent event) {
+        return mascarar(super.convert(event));
+    }
+
+    static String mascarar(String mensagem) {
+        if (mensagem == null || !temMarcador(mensagem)) {
+            return mensagem;
+        }
+        String resultado = BEARER.matcher(mensagem).replaceAll("$1***");
+        resultado = JWT.matcher(resultado).replaceAll("eyJ***");
+        return CHAVE_VALOR.matcher(resultado).replaceAll("$1***");
+    }
+
+    private static boolean temMarcador(String mensagem) {
+        String minusculas = mensagem.toLowerCase();
+        return minusculas.contains("bearer") || mensagem.contains("eyJ") || minusculas.contains("password")
+                || minusculas.contains("senha") || minusculas.contains("secret") || minusculas.contains("token");
+    }
+}
@@ -0,0 +1,85 @@
+package com.pastagem.config.logging;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Uma linha de resumo por requisição no logger {@code pastagem.request}:
+ * método, rota, status, latência, quantidade de consultas SQL e usuário.
+ *
+ * Requisições bem-sucedidas são amostradas ({@code logging.request.sample-rate});
+ * erros (status 4xx/5xx ou exceção) e requisições lentas são sempre registrados.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RequestLogFilter extends OncePerRequestFilter {
+
+    /** Atributo da requisição com o id do usuário autenticado (ou o sub do token). */
+    public static final String ATRIBUTO_USUARIO = "pastagem.usuario";
+
+    private static final Logger logger = LoggerFactory.getLogger("pastagem.request");
+
+    @Value("${logging.request.sample-rate:0.01}")
+    private double taxaAmostragem;
+
+    @Value("${logging.request.slow-threshold:PT1S}")
+    private Duration limiteLenta;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long inicio = System.nanoTime();
+        ContadorConsultas.zerar();
+        Throwable erro = null;
+        try {
+            filterChain.doFilter(request, response);
+        } catch (IOException | ServletException | RuntimeException e) {
+            erro = e;
+            throw e;
+        } finally {
+            registrar(request, response, System.nanoTime() - inicio, erro);
+        }
+    }
+
+    private void registrar(HttpServletRequest request, HttpServletResponse response, long duracaoNanos, Throwable erro) {
+        int status = erro != null ? HttpServletResponse.SC_INTERNAL_SERVER_ERROR : response.getStatus();
+        boolean falha = erro != null || status >= 400;
+        boolean lenta = duracaoNanos >= limiteLenta.toNanos();
+        if (!falha && !lenta && ThreadLocalRandom.current().nextDouble() >= taxaAmostragem) {
+            return;
+        }
+
+        Object rota = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String linha = String.format("method=%s route=%s status=%d ms=%d queries=%d usuario=%s%s",
+                request.getMethod(),
+                rota != null ? rota : request.getRequestURI(),
+                status,
+                duracaoNanos / 1_000_000,
+                ContadorConsultas.total(),
+                request.getAttribute(ATRIBUTO_USUARIO) != null ? request.getAttribute(ATRIBUTO_USUARIO) : "-",
+                erro != null ? " erro=" + erro.getClass().getSimpleName() : "");
+
+        if (erro != null || status >= 500) {
+            logger.error(linha);
+        } else if (falha || lenta) {
+            logger.warn(linha);
+        } else {
+            logger.info(linha);
+        }
+    }
+}
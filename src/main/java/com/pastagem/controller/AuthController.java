@@ -1,120 +1,100 @@
 package com.pastagem.controller;
 
-import java.security.PublicKey;
-import java.security.interfaces.RSAPublicKey;
-import java.util.Base64;
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
 
-import javax.crypto.Mac;
-import javax.crypto.spec.SecretKeySpec;
-
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
-import org.springframework.web.client.RestTemplate;
 
 import com.auth0.jwt.JWT;
-import com.auth0.jwt.algorithms.Algorithm;
 import com.auth0.jwt.exceptions.JWTVerificationException;
 import com.auth0.jwt.interfaces.DecodedJWT;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import java.nio.charset.StandardCharsets;
 
 import com.pastagem.dto.AuthRequest;
 import com.pastagem.dto.AuthResponse;
-import com.pastagem.model.Usuario;
-import com.pastagem.repository.UsuarioRepository;
+import com.pastagem.dto.IdentityTokens;
+import com.pastagem.security.CognitoTokenValidator;
+import com.pastagem.security.LoginRateLimiter;
+import com.pastagem.security.RefreshTokenCoalescer;
+import com.pastagem.security.SessionTokenService;
+import com.pastagem.security.UsuarioPrincipal;
+import com.pastagem.security.UsuarioPrincipalCache;
+import com.pastagem.service.IdentityProvider;
+import com.pastagem.service.IdentityProviderException;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import jakarta.servlet.http.HttpServletRequest;
+
 @RestController
 @RequestMapping("/auth")
 public class AuthController {
     private static final Logger logger = LoggerFactory.getLogger(AuthController.class);
 
-    @Value("${aws.cognito.url}")
-    private String cognitoUrl;
+    @Autowired
+    private UsuarioPrincipalCache usuarioPrincipalCache;
 
-    @Value("${aws.cognito.userPoolId}")
-    private String userPoolId;
+    @Autowired
+    private CognitoTokenValidator cognitoTokenValidator;
 
-    @Value("${aws.cognito.clientId}")
-    private String clientId;
+    @Autowired
+    private IdentityProvider identityProvider;
 
-    @Value("${aws.cognito.clientSecret}")
-    private String clientSecret;
+    @Autowired
+    private RefreshTokenCoalescer refreshTokenCoalescer;
 
     @Autowired
-    private UsuarioRepository usuarioRepository;
+    private LoginRateLimiter loginRateLimiter;
 
-    private final Map<String, PublicKey> publicKeyCache = new HashMap<>();
-    private final RestTemplate restTemplate = new RestTemplate();
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    // Ausente quando security.session-token.enabled=false
+    @Autowired(required = false)
+    private SessionTokenService sessionTokenService;
 
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody AuthRequest authRequest) {
-        try {
-            String secretHash = calculateSecretHash(authRequest.getUsername());
-
-            Map<String, Object> authParams = new HashMap<>();
-            authParams.put("USERNAME", authRequest.getUsername());
-            authParams.put("PASSWORD", authRequest.getPassword());
-            authParams.put("SECRET_HASH", secretHash);
-
-            Map<String, Object> payload = new HashMap<>();
-            payload.put("AuthFlow", "USER_PASSWORD_AUTH");
-            payload.put("ClientId", clientId);
-            payload.put("AuthParameters", authParams);
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.set("Content-Type", "application/x-amz-json-1.1");
-            headers.set("X-Amz-Target", "AWSCognitoIdentityProviderService.InitiateAuth");
-
-            String body = objectMapper.writeValueAsString(payload);
-            HttpEntity<String> request = new HttpEntity<>(body, headers);
-
-            ResponseEntity<String> response = restTemplate.postForEntity(cognitoUrl, request, String.class);
-            
-            if (response.getStatusCode() == HttpStatus.OK) {
-                JsonNode responseJson = objectMapper.readTree(response.getBody());
-                JsonNode authResult = responseJson.get("AuthenticationResult");
-                
-                // Extrair o cognitoId do token
-                String idToken = authResult.get("IdToken").asText();
-                DecodedJWT jwt = JWT.decode(idToken);
-                String cognitoId = jwt.getSubject();
-                
-                // Buscar informações do usuário pelo cognitoId
-                Usuario usuario = usuarioRepository.findByCognitoId(cognitoId)
-                    .orElseThrow(() -> new RuntimeException("Usuário não encontrado"));
-
-                // Criar resposta com informações do usuário
-                AuthResponse authResponse = AuthResponse.builder()
-                    .idToken(idToken)
-                    .accessToken(authResult.get("AccessToken").asText())
-                    .refreshToken(authResult.get("RefreshToken").asText())
-                    .cargo(usuario.getCargo())
-                    .nome(usuario.getNome())
-                    .email(usuario.getEmail())
-                    .cognitoId(cognitoId)
-                    .id(usuario.getId())
-                    .build();
-
-                return ResponseEntity.ok(authResponse);
-            }
+    public ResponseEntity<?> login(@RequestBody AuthRequest authRequest, HttpServletRequest request) {
+        // Recusar antes de qualquer chamada ao provedor de identidade
+        Duration espera = loginRateLimiter.tentar(request.getRemoteAddr(), authRequest.getUsername());
+        if (!espera.isZero()) {
+            long segundos = Math.max(1, (espera.toMillis() + 999) / 1000);
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(segundos))
+                .body(Map.of("error", "too_many_requests"));
+        }
 
-            return ResponseEntity.status(response.getStatusCode()).body(response.getBody());
+        try {
+            IdentityTokens tokens = identityProvider.autenticar(authRequest.getUsername(), authRequest.getPassword());
+
+            // Extrair o cognitoId do token
+            String idToken = tokens.getIdToken();
+            DecodedJWT jwt = JWT.decode(idToken);
+            String cognitoId = jwt.getSubject();
+
+            // Buscar informações do usuário pelo cognitoId (já deixa o principal em cache)
+            UsuarioPrincipal usuario = usuarioPrincipalCache.resolver(cognitoId)
+                .orElseThrow(() -> new RuntimeException("Usuário não encontrado"));
+
+            // Criar resposta com informações do usuário
+            AuthResponse authResponse = AuthResponse.builder()
+                .idToken(idToken)
+                .accessToken(tokens.getAccessToken())
+                .refreshToken(tokens.getRefreshToken())
+                .cargo(usuario.cargo())
+                .nome(usuario.nome())
+                .email(usuario.email())
+                .cognitoId(cognitoId)
+                .id(usuario.id())
+                .build();
+
+            return ResponseEntity.ok(authResponse);
 
         } catch (Exception e) {
             logger.error("Erro durante o login: ", e);
@@ -122,6 +102,30 @@ public class AuthController {
         }
     }
 
+    /**
+     * Troca um token do Cognito já verificado pelo filtro por um token de sessão
+     * interno (HS256), mais barato de validar nas chamadas seguintes.
+     */
+    @PostMapping("/session")
+    public ResponseEntity<?> session(@AuthenticationPrincipal Object principal, HttpServletRequest request) {
+        if (sessionTokenService == null) {
+            return ResponseEntity.notFound().build();
+        }
+        DecodedJWT jwt = cognitoTokenValidator.tokenDaRequisicao(request);
+        if (jwt == null || cognitoTokenValidator.isTokenDeSessao(jwt)) {
+            // A sessão só é renovada com um token do Cognito, para não se estender indefinidamente
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", "cognito_token_required"));
+        }
+        if (!(principal instanceof UsuarioPrincipal usuario)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("error", "usuario_nao_cadastrado"));
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("sessionToken", sessionTokenService.emitir(usuario));
+        response.put("expiresIn", sessionTokenService.getValidade().toSeconds());
+        return ResponseEntity.ok(response);
+    }
+
     @PostMapping("/validate")
     public ResponseEntity<Map<String, Object>> validateToken(
             @RequestHeader("Authorization") String authorizationHeader) {
@@ -129,21 +133,12 @@ public class AuthController {
             String token = authorizationHeader.substring(7);
 
             try {
-                DecodedJWT jwt = JWT.decode(token);
-                String keyId = jwt.getHeaderClaim("kid").asString();
-                PublicKey publicKey = getPublicKey(keyId);
+                DecodedJWT jwt = cognitoTokenValidator.validar(token);
 
-                if (publicKey != null) {
-                    Algorithm algorithm = Algorithm.RSA256((RSAPublicKey) publicKey, null);
-                    algorithm.verify(jwt);
-
-                    Map<String, Object> response = new HashMap<>();
-                    response.put("valid", true);
-                    response.put("claims", jwt.getClaims());
-                    return ResponseEntity.ok(response);
-                } else {
-                    logger.error("Chave pública não encontrada para o token.");
-                }
+                Map<String, Object> response = new HashMap<>();
+                response.put("valid", true);
+                response.put("claims", jwt.getClaims());
+                return ResponseEntity.ok(response);
 
             } catch (JWTVerificationException e) {
                 logger.error("Token JWT do Cognito inválido: {}", e.getMessage());
@@ -165,106 +160,26 @@ public class AuthController {
         }
 
         try {
-            logger.info("Tentando refresh token: {}", refreshToken);
-            logger.info("Usando ClientId: {}", clientId);
-            logger.info("Usando ClientSecret: {}", clientSecret);
-            logger.info("Usando username: {}", username);
-            String secretHash = calculateSecretHash(username);
-            logger.info("SecretHash calculado para refresh: {}", secretHash);
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.set("Content-Type", "application/x-amz-json-1.1");
-            headers.set("X-Amz-Target", "AWSCognitoIdentityProviderService.InitiateAuth");
-
-            Map<String, String> authParams = new HashMap<>();
-            authParams.put("REFRESH_TOKEN", refreshToken);
-            authParams.put("SECRET_HASH", secretHash);
+            logger.info("Tentando refresh token para username: {}", username);
+            IdentityTokens tokens = refreshTokenCoalescer.renovar(refreshToken, username);
 
-            Map<String, Object> body = new HashMap<>();
-            body.put("AuthFlow", "REFRESH_TOKEN_AUTH");
-            body.put("ClientId", clientId);
-            body.put("AuthParameters", authParams);
+            Map<String, String> refreshedTokens = new HashMap<>();
+            refreshedTokens.put("idToken", tokens.getIdToken());
+            refreshedTokens.put("accessToken", tokens.getAccessToken());
+            return ResponseEntity.ok(refreshedTokens);
 
-            String jsonBody = objectMapper.writeValueAsString(body);
-            HttpEntity<String> request = new HttpEntity<>(jsonBody, headers);
-
-            ResponseEntity<JsonNode> response = restTemplate.exchange(cognitoUrl,
-                    HttpMethod.POST,
-                    request,
-                    JsonNode.class);
-
-            if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
-                @SuppressWarnings("null")
-                JsonNode authResultNode = response.getBody().get("AuthenticationResult");
-                if (authResultNode != null && authResultNode.has("IdToken") && authResultNode.has("AccessToken")) {
-                    Map<String, String> refreshedTokens = new HashMap<>();
-                    refreshedTokens.put("idToken", authResultNode.get("IdToken").asText());
-                    refreshedTokens.put("accessToken", authResultNode.get("AccessToken").asText());
-                    return ResponseEntity.ok(refreshedTokens);
-                } else {
-                    logger.error("Resposta de refresh token inesperada: {}", response.getBody());
-                    return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                            .body(Map.of("error", "invalid_refresh_token_response"));
-                }
-            } else {
-                logger.error("Erro ao renovar token. Status: {}, Corpo: {}", response.getStatusCode(),
-                        response.getBody());
+        } catch (IdentityProviderException e) {
+            if (e.getMotivo() == IdentityProviderException.Motivo.CREDENCIAIS_INVALIDAS) {
+                logger.error("Erro ao renovar token: {}", e.getMessage());
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", "invalid_refresh_token"));
             }
-
-        } catch (Exception e) {
-            e.printStackTrace();
             logger.error("Erro ao processar a renovação do token", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Map.of("error", "refresh_token_processing_error", "details", e.getMessage()));
-        }
-    }
-
-    @SuppressWarnings("null")
-    private PublicKey getPublicKey(String keyId) {
-        if (publicKeyCache.containsKey(keyId)) {
-            return publicKeyCache.get(keyId);
-        }
-
-        try {
-            String jwksUrl = String.format("%s/%s/.well-known/jwks.json", cognitoUrl, userPoolId);
-            ResponseEntity<JsonNode> response = restTemplate.getForEntity(jwksUrl, JsonNode.class);
-
-            if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
-                JsonNode keys = response.getBody().get("keys");
-                if (keys != null && keys.isArray()) {
-                    for (JsonNode key : keys) {
-                        if (key.has("kid") && key.get("kid").asText().equals(keyId)) {
-                            String nStr = key.get("n").asText();
-                            String eStr = key.get("e").asText();
-
-                            byte[] nBytes = Base64.getUrlDecoder().decode(nStr);
-                            byte[] eBytes = Base64.getUrlDecoder().decode(eStr);
-
-                            java.security.spec.RSAPublicKeySpec spec = new java.security.spec.RSAPublicKeySpec(
-                                    new java.math.BigInteger(1, nBytes), new java.math.BigInteger(1, eBytes));
-                            java.security.KeyFactory keyFactory = java.security.KeyFactory.getInstance("RSA");
-                            PublicKey publicKey = keyFactory.generatePublic(spec);
-                            publicKeyCache.put(keyId, publicKey);
-                            return publicKey;
-                        }
-                    }
-                }
-            }
-            logger.error("Chave pública não encontrada para kid: {}", keyId);
-
         } catch (Exception e) {
-            logger.error("Erro ao buscar chaves públicas do Cognito: {}", e.getMessage());
+            logger.error("Erro ao processar a renovação do token", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "refresh_token_processing_error", "details", e.getMessage()));
         }
-        return null;
-    }
-
-    private String calculateSecretHash(String input) throws Exception {
-        String message = input + clientId;
-        Mac mac = Mac.getInstance("HmacSHA256");
-        SecretKeySpec secretKey = new SecretKeySpec(clientSecret.getBytes(StandardCharsets.UTF_8), "HmacSHA256");
-        mac.init(secretKey);
-        byte[] rawHmac = mac.doFinal(message.getBytes(StandardCharsets.UTF_8));
-        return Base64.getEncoder().encodeToString(rawHmac);
     }
-} 
\ No newline at end of file
+}
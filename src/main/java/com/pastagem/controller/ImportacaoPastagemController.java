@@ -0,0 +1,94 @@
+package com.pastagem.controller;
+
+import com.pastagem.dto.ErrorResponse;
+import com.pastagem.dto.ImportacaoPastagemResumo;
+import com.pastagem.security.UsuarioPrincipal;
+import com.pastagem.service.ImportacaoPastagemService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Importação de pastagens por CSV.
+ *
+ * O corpo da requisição ({@code text/csv}, com cabeçalho
+ * {@code nome;area_hectares;tipo_pasto;capacidade_suporte;propriedade_id}) é lido
+ * em streaming e a resposta traz o resumo ao final. O andamento pode ser
+ * acompanhado em {@code GET /api/pastagem/importacao} enquanto o upload ocorre.
+ * Usuários não administradores só importam para as próprias propriedades.
+ */
+@RestController
+@RequestMapping("/api/pastagem/importacao")
+@CrossOrigin(origins = "*")
+public class ImportacaoPastagemController {
+    private static final Logger logger = LoggerFactory.getLogger(ImportacaoPastagemController.class);
+
+    @Autowired
+    private ImportacaoPastagemService importacaoPastagemService;
+
+    @PostMapping(consumes = "text/csv")
+    public ResponseEntity<?> importarCsv(@AuthenticationPrincipal Object principal, HttpServletRequest request) {
+        if (!(principal instanceof UsuarioPrincipal usuario)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        try {
+            ImportacaoPastagemResumo resumo = importacaoPastagemService.importar(request.getInputStream(),
+                    usuario.isAdmin() ? null : usuario.id(), usuario.id());
+            return ResponseEntity.ok(resumo);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(new ErrorResponse(e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Erro na importação de pastagens: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(new ErrorResponse(e.getMessage()));
+        }
+    }
+
+    @GetMapping
+    public ResponseEntity<List<ImportacaoPastagemResumo>> listar(@AuthenticationPrincipal Object principal) {
+        if (!(principal instanceof UsuarioPrincipal usuario)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        return ResponseEntity.ok(importacaoPastagemService.listar(usuario.id(), usuario.isAdmin()));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<ImportacaoPastagemResumo> findById(@PathVariable String id, @AuthenticationPrincipal Object principal) {
+        if (!(principal instanceof UsuarioPrincipal usuario)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        return importacaoPastagemService.buscarResumo(id, usuario.id(), usuario.isAdmin())
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/{id}/rejeitadas")
+    public void rejeitadas(@PathVariable String id, @AuthenticationPrincipal Object principal,
+                           HttpServletResponse response) throws IOException {
+        if (!(principal instanceof UsuarioPrincipal usuario)) {
+            response.setStatus(HttpStatus.UNAUTHORIZED.value());
+            return;
+        }
+        Optional<Path> relatorio = importacaoPastagemService.buscarRelatorio(id, usuario.id(), usuario.isAdmin());
+        if (relatorio.isEmpty()) {
+            response.setStatus(HttpStatus.NOT_FOUND.value());
+            return;
+        }
+        response.setContentType("text/csv;charset=UTF-8");
+        response.setHeader("Content-Disposition", "attachment; filename=\"pastagens-rejeitadas-" + id + ".csv\"");
+        Files.copy(relatorio.get(), response.getOutputStream());
+    }
+}
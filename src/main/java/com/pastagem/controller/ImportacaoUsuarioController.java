@@ -0,0 +1,105 @@
+package com.pastagem.controller;
+
+import com.pastagem.dto.ErrorResponse;
+import com.pastagem.dto.ImportacaoItemDTO;
+import com.pastagem.dto.ImportacaoResumo;
+import com.pastagem.dto.UsuarioRegisterDTO;
+import com.pastagem.model.ImportacaoUsuarioItem;
+import com.pastagem.security.UsuarioPrincipal;
+import com.pastagem.service.ImportacaoUsuarioService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import jakarta.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Importação em lote de usuários (somente ADMIN).
+ *
+ * Aceita um array JSON de {@link UsuarioRegisterDTO} ou um CSV com cabeçalho,
+ * responde 202 com o resumo da importação e processa em segundo plano. Para
+ * retomar uma importação interrompida, reenvie o mesmo arquivo com
+ * {@code ?importacao=<id>}.
+ */
+@RestController
+@RequestMapping("/api/usuarios/importacao")
+@CrossOrigin(origins = "*")
+public class ImportacaoUsuarioController {
+    private static final Logger logger = LoggerFactory.getLogger(ImportacaoUsuarioController.class);
+
+    @Autowired
+    private ImportacaoUsuarioService importacaoUsuarioService;
+
+    @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> importarJson(@RequestParam(required = false) Long importacao,
+                                          @AuthenticationPrincipal Object principal,
+                                          HttpServletRequest request) {
+        return importar(principal, importacao, () -> importacaoUsuarioService.lerJson(request.getInputStream()));
+    }
+
+    @PostMapping(consumes = "text/csv")
+    public ResponseEntity<?> importarCsv(@RequestParam(required = false) Long importacao,
+                                         @AuthenticationPrincipal Object principal,
+                                         HttpServletRequest request) {
+        return importar(principal, importacao, () -> importacaoUsuarioService.lerCsv(request.getInputStream()));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<ImportacaoResumo> findById(@PathVariable Long id, @AuthenticationPrincipal Object principal) {
+        if (!isAdmin(principal)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return importacaoUsuarioService.buscarResumo(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/{id}/itens")
+    public ResponseEntity<Page<ImportacaoItemDTO>> findItens(@PathVariable Long id,
+                                                             @RequestParam(required = false) ImportacaoUsuarioItem.Status status,
+                                                             @PageableDefault(size = 100, sort = "linha") Pageable pageable,
+                                                             @AuthenticationPrincipal Object principal) {
+        if (!isAdmin(principal)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return ResponseEntity.ok(importacaoUsuarioService.buscarItens(id, status, pageable));
+    }
+
+    private ResponseEntity<?> importar(Object principal, Long importacao, Leitura leitura) {
+        if (!(principal instanceof UsuarioPrincipal usuario) || !usuario.isAdmin()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        try {
+            List<UsuarioRegisterDTO> linhas = leitura.ler();
+            ImportacaoResumo resumo = importacaoUsuarioService.iniciar(linhas, importacao, usuario.id());
+            logger.info("Importação {} iniciada por {} ({} linhas)", resumo.id(), usuario.id(), linhas.size());
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(resumo);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(new ErrorResponse(e.getMessage()));
+        } catch (IOException e) {
+            logger.error("Erro ao ler arquivo de importação: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(new ErrorResponse("Arquivo inválido: " + e.getMessage()));
+        }
+    }
+
+    private static boolean isAdmin(Object principal) {
+        return principal instanceof UsuarioPrincipal usuario && usuario.isAdmin();
+    }
+
+    @FunctionalInterface
+    private interface Leitura {
+        List<UsuarioRegisterDTO> ler() throws IOException;
+    }
+}
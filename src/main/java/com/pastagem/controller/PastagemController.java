@@ -2,16 +2,34 @@ package com.pastagem.controller;
 
 import com.pastagem.model.Pastagem;
 import com.pastagem.service.PastagemService;
+import com.pastagem.dto.CursorPage;
+import com.pastagem.dto.ErrorResponse;
+import com.pastagem.dto.LoteResultado;
+import com.pastagem.dto.PastagemAlteracaoLoteDTO;
+import com.pastagem.dto.PastagemCreateDTO;
+import com.pastagem.dto.PastagemFiltroLoteDTO;
+import com.pastagem.dto.VersaoExportacao;
+import com.pastagem.security.UsuarioPrincipal;
+import com.pastagem.util.KeysetCursor;
+import com.pastagem.util.NdjsonWriter;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -35,6 +53,41 @@ public class PastagemController {
         }
     }
 
+    @GetMapping("/cursor")
+    public ResponseEntity<CursorPage<Pastagem>> findAllCursor(@RequestParam(required = false) String cursor,
+                                                          @RequestParam(required = false) String ordem,
+                                                          @RequestParam(defaultValue = "20") int size,
+                                                          @RequestParam(defaultValue = "false") boolean total) {
+        try {
+            KeysetCursor posicao = KeysetCursor.de(cursor, ordem);
+            Slice<Pastagem> pastagens = pastagemService.findAll(posicao, CursorPage.limitarTamanho(size));
+            // Total estimado pelas estatísticas da tabela, sem COUNT(*)
+            return ResponseEntity.ok(CursorPage.of(pastagens,
+                    p -> KeysetCursor.apos(posicao.ordem(), p.getUpdatedAt(), p.getId()),
+                    total ? pastagemService.estimarTotal() : null));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    // Exportação completa em NDJSON, escrita direto na resposta sem montar a lista em memória
+    @GetMapping("/exportar")
+    public void exportar(@RequestParam(required = false) Long propriedadeId,
+                         @RequestParam(required = false) String tipoPasto,
+                         @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime atualizadoDesde,
+                         ServletWebRequest webRequest, HttpServletResponse response) throws IOException {
+        VersaoExportacao versao = pastagemService.versaoExportacao(propriedadeId, tipoPasto, atualizadoDesde);
+        // 304 quando If-None-Match / If-Modified-Since ainda correspondem aos dados
+        if (webRequest.checkNotModified(versao.etag(), versao.ultimaAtualizacaoMillis())) {
+            return;
+        }
+        response.setContentType(NdjsonWriter.MEDIA_TYPE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        pastagemService.exportar(propriedadeId, tipoPasto, atualizadoDesde, response.getOutputStream());
+    }
+
     @GetMapping("/todas")
     public ResponseEntity<List<Pastagem>> findAll() {
         try {
@@ -68,6 +121,58 @@ public class PastagemController {
         }
     }
 
+    // Cadastro de várias pastagens em uma transação; validação do lote em conjunto
+    @PostMapping("/lote")
+    public ResponseEntity<?> saveAll(@RequestBody List<PastagemCreateDTO> pastagens,
+                                     @AuthenticationPrincipal Object principal) {
+        try {
+            if (!(principal instanceof UsuarioPrincipal usuario)) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+            }
+            // Administrador pode cadastrar em qualquer propriedade; os demais só nas próprias
+            List<Pastagem> salvas = pastagemService.saveAll(pastagens, usuario.isAdmin() ? null : usuario.id());
+            return ResponseEntity.status(HttpStatus.CREATED).body(salvas);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    // Alteração em lote (tipo de pasto e/ou propriedade) em um único UPDATE
+    @PatchMapping("/lote")
+    public ResponseEntity<?> updateAll(@Valid @RequestBody PastagemAlteracaoLoteDTO alteracao,
+                                       @AuthenticationPrincipal Object principal) {
+        try {
+            if (!(principal instanceof UsuarioPrincipal usuario)) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+            }
+            long afetadas = pastagemService.atualizarEmLote(alteracao, usuario.isAdmin() ? null : usuario.id());
+            return ResponseEntity.ok(new LoteResultado(afetadas));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    // Exclusão em lote por IDs ou por filtro em um único DELETE
+    @DeleteMapping("/lote")
+    public ResponseEntity<?> deleteAll(@Valid @RequestBody PastagemFiltroLoteDTO filtro,
+                                       @AuthenticationPrincipal Object principal) {
+        try {
+            if (!(principal instanceof UsuarioPrincipal usuario)) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+            }
+            long afetadas = pastagemService.excluirEmLote(filtro, usuario.isAdmin() ? null : usuario.id());
+            return ResponseEntity.ok(new LoteResultado(afetadas));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<?> update(@PathVariable Long id, @Valid @RequestBody Pastagem pastagem) {
         try {
@@ -129,6 +234,20 @@ public class PastagemController {
         }
     }
 
+    // Pesquisa paginada por nome, sem acentos e ordenada por semelhança
+    @GetMapping("/pesquisa")
+    public ResponseEntity<Slice<Pastagem>> pesquisarPorNome(@RequestParam String termo,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        try {
+            return ResponseEntity.ok(pastagemService.pesquisarPorNome(termo, page, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
     @GetMapping("/area-range")
     public ResponseEntity<List<Pastagem>> findByAreaHectaresBetween(
             @RequestParam BigDecimal areaMin, 
@@ -153,6 +272,21 @@ public class PastagemController {
         }
     }
 
+    @GetMapping("/densidade-range")
+    public ResponseEntity<Slice<Pastagem>> findByDensidadeBetween(
+            @RequestParam BigDecimal densidadeMin,
+            @RequestParam BigDecimal densidadeMax,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        try {
+            return ResponseEntity.ok(pastagemService.findByDensidadeBetween(densidadeMin, densidadeMax, page, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
     // Verificação de existência
 
     @GetMapping("/{id}/existe")
@@ -168,10 +302,24 @@ public class PastagemController {
     // Operações de relatório e análise
 
     @GetMapping("/capacidade-inadequada")
-    public ResponseEntity<List<Pastagem>> findPastagensComCapacidadeInadequada() {
+    public ResponseEntity<Slice<Pastagem>> findPastagensComCapacidadeInadequada(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
         try {
-            List<Pastagem> pastagens = pastagemService.findPastagensComCapacidadeInadequada();
-            return ResponseEntity.ok(pastagens);
+            return ResponseEntity.ok(pastagemService.findPastagensComCapacidadeInadequada(page, size));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @GetMapping("/propriedade/{propriedadeId}/densidade")
+    public ResponseEntity<Slice<Pastagem>> findByPropriedadeIdOrderByDensidadeDesc(@PathVariable Long propriedadeId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        try {
+            return ResponseEntity.ok(pastagemService.findByPropriedadeIdOrderByDensidadeDesc(propriedadeId, page, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
@@ -2,22 +2,35 @@ package com.pastagem.controller;
 
 import com.pastagem.model.Propriedade;
 import com.pastagem.model.Pastagem;
-import com.pastagem.model.Usuario;
 import com.pastagem.service.PropriedadeService;
 import com.pastagem.service.UsuarioService;
+import com.pastagem.dto.CursorPage;
+import com.pastagem.dto.PainelPropriedade;
 import com.pastagem.dto.PropriedadeCreateDTO;
+import com.pastagem.dto.VersaoExportacao;
+import com.pastagem.util.KeysetCursor;
+import com.pastagem.util.NdjsonWriter;
+import com.pastagem.security.UsuarioPrincipal;
 import com.auth0.jwt.interfaces.DecodedJWT;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -44,6 +57,43 @@ public class PropriedadeController {
         }
     }
 
+    @GetMapping("/usuario/{id_usuario}/cursor")
+    public ResponseEntity<CursorPage<Propriedade>> findAllCursor(@PathVariable Long id_usuario,
+                                                                 @RequestParam(required = false) String cursor,
+                                                                 @RequestParam(required = false) String ordem,
+                                                                 @RequestParam(defaultValue = "20") int size,
+                                                                 @RequestParam(defaultValue = "false") boolean total) {
+        try {
+            KeysetCursor posicao = KeysetCursor.de(cursor, ordem);
+            Slice<Propriedade> propriedades = propriedadeService.findByUsuarioId(id_usuario, posicao, CursorPage.limitarTamanho(size));
+            // Por usuário a contagem é exata, pelo índice (id_usuario, id)
+            return ResponseEntity.ok(CursorPage.of(propriedades,
+                    p -> KeysetCursor.apos(posicao.ordem(), p.getUpdatedAt(), p.getId()),
+                    total ? propriedadeService.countByUsuarioId(id_usuario) : null));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    // Exportação completa em NDJSON, escrita direto na resposta sem montar a lista em memória
+    @GetMapping("/exportar")
+    public void exportar(@RequestParam(required = false) Long usuarioId,
+                         @RequestParam(required = false) String cidade,
+                         @RequestParam(required = false) String estado,
+                         @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime atualizadoDesde,
+                         ServletWebRequest webRequest, HttpServletResponse response) throws IOException {
+        VersaoExportacao versao = propriedadeService.versaoExportacao(usuarioId, cidade, estado, atualizadoDesde);
+        // 304 quando If-None-Match / If-Modified-Since ainda correspondem aos dados
+        if (webRequest.checkNotModified(versao.etag(), versao.ultimaAtualizacaoMillis())) {
+            return;
+        }
+        response.setContentType(NdjsonWriter.MEDIA_TYPE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        propriedadeService.exportar(usuarioId, cidade, estado, atualizadoDesde, response.getOutputStream());
+    }
+
     @GetMapping("/todas")
     public ResponseEntity<List<Propriedade>> findAll() {
         try {
@@ -66,18 +116,16 @@ public class PropriedadeController {
     }
 
     @PostMapping("/usuario/{id_usuario}")
-    public ResponseEntity<Propriedade> save(@PathVariable Long id_usuario, @Valid @RequestBody PropriedadeCreateDTO dto, HttpServletRequest request) {
+    public ResponseEntity<Propriedade> save(@PathVariable Long id_usuario, @Valid @RequestBody PropriedadeCreateDTO dto,
+                                            @AuthenticationPrincipal Object principal) {
         try {
-            // Pega o ID do usuário do token JWT
-            DecodedJWT jwt = (DecodedJWT) request.getAttribute("cognitoUser");
-            String userId = jwt.getSubject();
-
-            // Busca o usuário pelo ID do Cognito
-            Usuario usuario = usuarioService.findByCognitoId(userId)
-                .orElseThrow(() -> new IllegalArgumentException("Usuário não encontrado"));
+            // Usuário resolvido pelo filtro de autenticação
+            if (!(principal instanceof UsuarioPrincipal usuario)) {
+                throw new IllegalArgumentException("Usuário não encontrado");
+            }
 
             // Verifica se o usuário tem permissão
-            if (!usuario.getId().equals(id_usuario)) {
+            if (!usuario.id().equals(id_usuario)) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
             }
 
@@ -88,10 +136,10 @@ public class PropriedadeController {
             propriedade.setAreaTotal(dto.getAreaTotal());
             propriedade.setCidade(dto.getCidade());
             propriedade.setEstado(dto.getEstado());
-            propriedade.setUsuario(usuario);
+            propriedade.setUsuario(usuarioService.getReferenceById(usuario.id()));
 
             // Salva a propriedade
-            Propriedade propriedadeSalva = propriedadeService.save(propriedade, userId);
+            Propriedade propriedadeSalva = propriedadeService.save(propriedade, usuario.cognitoId());
             return ResponseEntity.status(HttpStatus.CREATED).body(propriedadeSalva);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().build();
@@ -184,6 +232,20 @@ public class PropriedadeController {
         }
     }
 
+    // Pesquisa paginada por nome, sem acentos e ordenada por semelhança
+    @GetMapping("/usuario/{id_usuario}/pesquisa")
+    public ResponseEntity<Slice<Propriedade>> pesquisarPorNome(@PathVariable Long id_usuario, @RequestParam String termo,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        try {
+            return ResponseEntity.ok(propriedadeService.pesquisarPorNome(id_usuario, termo, page, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
     @GetMapping("/usuario/{id_usuario}/localidade")
     public ResponseEntity<List<Propriedade>> findByCidadeAndEstado(
             @PathVariable Long id_usuario,
@@ -255,4 +317,20 @@ public class PropriedadeController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
-}
\ No newline at end of file
+
+    // Indicadores das pastagens da propriedade (quantidade, áreas, capacidade e densidades)
+    // em uma única consulta; substitui as chamadas separadas de área, capacidade e densidade
+    @GetMapping("/{id}/painel")
+    public ResponseEntity<PainelPropriedade> painel(@PathVariable Long id, @AuthenticationPrincipal Object principal) {
+        if (!(principal instanceof UsuarioPrincipal usuario)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        try {
+            return propriedadeService.buscarPainel(id, usuario.isAdmin() ? null : usuario.id())
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+}
@@ -4,24 +4,37 @@ import com.pastagem.model.Usuario;
 import com.pastagem.model.Propriedade;
 import com.pastagem.model.Cargo;
 import com.pastagem.service.UsuarioService;
+import com.pastagem.service.CognitoGateway;
 import com.pastagem.service.CognitoService;
 import com.pastagem.dto.UsuarioRegisterDTO;
 import com.pastagem.dto.ErrorResponse;
 import com.pastagem.dto.MessageResponse;
+import com.pastagem.dto.CursorPage;
+import com.pastagem.dto.VersaoExportacao;
+import com.pastagem.util.KeysetCursor;
+import com.pastagem.util.NdjsonWriter;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/usuarios")
@@ -47,6 +60,40 @@ public class UsuarioController {
         }
     }
 
+    @GetMapping("/cursor")
+    public ResponseEntity<CursorPage<Usuario>> findAllCursor(@RequestParam(required = false) String cursor,
+                                                          @RequestParam(required = false) String ordem,
+                                                          @RequestParam(defaultValue = "20") int size,
+                                                          @RequestParam(defaultValue = "false") boolean total) {
+        try {
+            KeysetCursor posicao = KeysetCursor.de(cursor, ordem);
+            Slice<Usuario> usuarios = usuarioService.findAll(posicao, CursorPage.limitarTamanho(size));
+            // Total estimado pelas estatísticas da tabela, sem COUNT(*)
+            return ResponseEntity.ok(CursorPage.of(usuarios,
+                    p -> KeysetCursor.apos(posicao.ordem(), p.getUpdatedAt(), p.getId()),
+                    total ? usuarioService.estimarTotal() : null));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    // Exportação completa em NDJSON, escrita direto na resposta sem montar a lista em memória
+    @GetMapping("/exportar")
+    public void exportar(@RequestParam(required = false) Cargo cargo,
+                         @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime atualizadoDesde,
+                         ServletWebRequest webRequest, HttpServletResponse response) throws IOException {
+        VersaoExportacao versao = usuarioService.versaoExportacao(cargo, atualizadoDesde);
+        // 304 quando If-None-Match / If-Modified-Since ainda correspondem aos dados
+        if (webRequest.checkNotModified(versao.etag(), versao.ultimaAtualizacaoMillis())) {
+            return;
+        }
+        response.setContentType(NdjsonWriter.MEDIA_TYPE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        usuarioService.exportar(cargo, atualizadoDesde, response.getOutputStream());
+    }
+
     @GetMapping("/todos")
     public ResponseEntity<List<Usuario>> findAll() {
         try {
@@ -81,38 +128,29 @@ public class UsuarioController {
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<Usuario> update(@PathVariable Long id, @Valid @RequestBody Usuario usuario) {
+    public ResponseEntity<?> update(@PathVariable Long id, @Valid @RequestBody Usuario usuario) {
         try {
-            if (!usuarioService.existsById(id)) {
-                return ResponseEntity.notFound().build();
+            // O Cognito é atualizado depois, pelo outbox, quando o email muda. Um e-mail já
+            // usado lá faria essa operação falhar com o banco já alterado, então a conferência
+            // é feita aqui, sem o cache de existência e fora da transação da gravação
+            if (usuario.getEmail() != null) {
+                String emailNovo = usuario.getEmail().trim().toLowerCase();
+                Optional<Usuario> atual = usuarioService.findById(id);
+                if (atual.isPresent() && !atual.get().getEmail().equalsIgnoreCase(emailNovo)) {
+                    cognitoService.invalidarExistencia(emailNovo);
+                    if (cognitoService.userExistsInCognito(emailNovo)) {
+                        return ResponseEntity.badRequest().body(new ErrorResponse("E-mail já cadastrado no Cognito: " + emailNovo));
+                    }
+                }
             }
-            
-            // Buscar usuário existente para obter o email atual e cognitoId
-            Optional<Usuario> usuarioExistente = usuarioService.findById(id);
-            if (usuarioExistente.isEmpty()) {
+
+            Optional<Usuario> usuarioAtualizado = usuarioService.update(id, usuario);
+            if (usuarioAtualizado.isEmpty()) {
                 return ResponseEntity.notFound().build();
             }
-            
-            String emailAntigo = usuarioExistente.get().getEmail();
-            String emailNovo = usuario.getEmail();
-            String cognitoId = usuarioExistente.get().getCognitoId();
-            
-            // Se o email foi alterado, atualizar no Cognito
-            if (!emailAntigo.equals(emailNovo)) {
-                try {
-                    cognitoService.updateUserEmailInCognito(emailAntigo, emailNovo, usuario.getNome());
-                } catch (Exception e) {
-                    logger.error("Erro ao atualizar email no Cognito: {}", e.getMessage());
-                    return ResponseEntity.badRequest().build();
-                }
-            }
-            
-            usuario.setId(id);
-            usuario.setCognitoId(cognitoId); // Mantém o cognitoId original
-            Usuario usuarioAtualizado = usuarioService.save(usuario);
-            return ResponseEntity.ok(usuarioAtualizado);
+            return ResponseEntity.ok(usuarioAtualizado.get());
         } catch (IllegalArgumentException e) {
-            return ResponseEntity.badRequest().build();
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
@@ -166,6 +204,20 @@ public class UsuarioController {
         }
     }
 
+    // Pesquisa paginada por nome, sem acentos e ordenada por semelhança
+    @GetMapping("/pesquisa")
+    public ResponseEntity<Slice<Usuario>> pesquisarPorNome(@RequestParam String termo,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        try {
+            return ResponseEntity.ok(usuarioService.pesquisarPorNome(termo, page, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
     @GetMapping("/cargo/{cargo}")
     public ResponseEntity<List<Usuario>> findByCargo(@PathVariable Cargo cargo) {
         try {
@@ -259,9 +311,18 @@ public class UsuarioController {
             String cpfLimpo = removerPontuacao(usuarioDTO.getCpf());
             String telefoneLimpo = removerPontuacao(usuarioDTO.getTelefone());
 
-            // Verificar se o usuário já existe no Cognito
+            // Consultar o Cognito (uma única vez) enquanto CPF e e-mail são verificados no banco
+            CompletableFuture<Boolean> existeNoCognito = cognitoService.userExistsInCognitoAsync(usuarioDTO.getEmail());
+
+            try {
+                usuarioService.verificarDuplicidade(cpfLimpo, usuarioDTO.getEmail(), null);
+            } catch (IllegalArgumentException e) {
+                logger.error("Dados já cadastrados: {}", e.getMessage());
+                return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+            }
+
             try {
-                if (cognitoService.userExistsInCognito(usuarioDTO.getEmail())) {
+                if (CognitoGateway.aguardar(existeNoCognito)) {
                     logger.error("Usuário já existe no Cognito: {}", usuarioDTO.getEmail());
                     return ResponseEntity.badRequest().body(new ErrorResponse("Usuário já existe no Cognito"));
                 }
@@ -0,0 +1,20 @@
+package com.pastagem.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Área total da propriedade e área já ocupada por pastagens, para a regra de que
+ * a soma das pastagens não pode ultrapassar a área da propriedade.
+ */
+public record AreaPropriedade(Long propriedadeId, BigDecimal areaTotal, BigDecimal areaOcupada) {
+
+    public AreaPropriedade {
+        if (areaOcupada == null) {
+            areaOcupada = BigDecimal.ZERO;
+        }
+    }
+
+    public BigDecimal disponivel() {
+        return areaTotal.subtract(areaOcupada);
+    }
+}
@@ -0,0 +1,28 @@
+package com.pastagem.dto;
+
+import com.pastagem.util.KeysetCursor;
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Página de uma listagem por keyset: o conteúdo, o cursor da próxima página e,
+ * quando solicitado, o total de registros (estimado nas listagens globais).
+ */
+public record CursorPage<T>(List<T> content, String nextCursor, boolean hasNext, int size, Long totalAproximado) {
+
+    public static final int TAMANHO_MAXIMO = 100;
+
+    public static int limitarTamanho(int size) {
+        return Math.max(1, Math.min(size, TAMANHO_MAXIMO));
+    }
+
+    public static <T> CursorPage<T> of(Slice<T> slice, Function<T, KeysetCursor> posicao, Long totalAproximado) {
+        List<T> content = slice.getContent();
+        String nextCursor = slice.hasNext() && !content.isEmpty()
+                ? posicao.apply(content.get(content.size() - 1)).codificar()
+                : null;
+        return new CursorPage<>(content, nextCursor, slice.hasNext(), content.size(), totalAproximado);
+    }
+}
@@ -0,0 +1,12 @@
+package com.pastagem.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class IdentityTokens {
+    private String idToken;
+    private String accessToken;
+    private String refreshToken;
+}
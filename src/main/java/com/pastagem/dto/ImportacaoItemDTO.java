@@ -0,0 +1,13 @@
+package com.pastagem.dto;
+
+import com.pastagem.model.ImportacaoUsuarioItem;
+
+/**
+ * Resultado de uma linha da importação em lote.
+ */
+public record ImportacaoItemDTO(int linha, String email, ImportacaoUsuarioItem.Status status, String mensagem) {
+
+    public static ImportacaoItemDTO of(ImportacaoUsuarioItem item) {
+        return new ImportacaoItemDTO(item.getLinha(), item.getEmail(), item.getStatus(), item.getMensagem());
+    }
+}
@@ -0,0 +1,20 @@
+package com.pastagem.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Situação de uma importação de pastagens por CSV: linhas lidas, gravadas e
+ * rejeitadas até o momento e as primeiras rejeições (o relatório completo fica
+ * em {@code /api/pastagem/importacao/{id}/rejeitadas}).
+ */
+public record ImportacaoPastagemResumo(String id, Status status, long lidas, long gravadas, long rejeitadas,
+                                       List<String> primeirasRejeicoes, String erro,
+                                       LocalDateTime inicio, LocalDateTime fim) {
+
+    public enum Status {
+        PROCESSANDO,
+        CONCLUIDA,
+        FALHOU
+    }
+}
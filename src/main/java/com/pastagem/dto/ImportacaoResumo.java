@@ -0,0 +1,13 @@
+package com.pastagem.dto;
+
+import com.pastagem.model.ImportacaoUsuarios;
+
+import java.time.LocalDateTime;
+
+/**
+ * Situação de uma importação em lote de usuários.
+ */
+public record ImportacaoResumo(Long id, ImportacaoUsuarios.Status status, int totalLinhas,
+                               long criados, long provisionados, long erros,
+                               LocalDateTime inicio, LocalDateTime atualizacao) {
+}
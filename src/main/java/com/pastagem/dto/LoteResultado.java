@@ -0,0 +1,7 @@
+package com.pastagem.dto;
+
+/**
+ * Quantidade de registros afetados por uma operação em lote.
+ */
+public record LoteResultado(long afetadas) {
+}
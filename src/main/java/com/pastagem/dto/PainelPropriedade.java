@@ -0,0 +1,31 @@
+package com.pastagem.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Indicadores das pastagens de uma propriedade, montados por uma única consulta
+ * (resumo mantido por trigger + maior densidade), sem carregar entidades.
+ * Densidades em animais por hectare, com duas casas decimais.
+ */
+public record PainelPropriedade(Long propriedadeId,
+                                String nome,
+                                BigDecimal areaTotal,
+                                Long totalPastagens,
+                                BigDecimal areaPastagens,
+                                Long capacidadeTotal,
+                                BigDecimal densidadeMedia,
+                                BigDecimal densidadeMaxima) {
+
+    // Propriedade sem pastagens não tem linha no resumo: os agregados chegam nulos
+    public PainelPropriedade {
+        totalPastagens = totalPastagens == null ? 0L : totalPastagens;
+        areaPastagens = areaPastagens == null ? BigDecimal.ZERO : areaPastagens;
+        capacidadeTotal = capacidadeTotal == null ? 0L : capacidadeTotal;
+        densidadeMedia = densidadeMedia == null ? BigDecimal.ZERO : densidadeMedia;
+        densidadeMaxima = densidadeMaxima == null ? BigDecimal.ZERO : densidadeMaxima;
+    }
+
+    public BigDecimal areaDisponivel() {
+        return areaTotal.subtract(areaPastagens);
+    }
+}
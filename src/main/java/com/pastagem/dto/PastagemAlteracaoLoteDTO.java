@@ -0,0 +1,23 @@
+package com.pastagem.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+/**
+ * Alteração em lote: novo tipo de pasto e/ou nova propriedade para as
+ * pastagens selecionadas pelo filtro.
+ */
+@Data
+public class PastagemAlteracaoLoteDTO {
+
+    @Valid
+    @NotNull(message = "Filtro é obrigatório")
+    private PastagemFiltroLoteDTO filtro;
+
+    @Size(max = 100, message = "Tipo de pasto deve ter no máximo 100 caracteres")
+    private String tipoPasto;
+
+    private Long propriedadeId;
+}
@@ -0,0 +1,36 @@
+package com.pastagem.dto;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+import java.math.BigDecimal;
+
+@Data
+public class PastagemCreateDTO {
+
+    @NotBlank(message = "Nome da pastagem é obrigatório")
+    @Size(max = 100, message = "Nome deve ter no máximo 100 caracteres")
+    private String nome;
+
+    @NotNull(message = "Área em hectares é obrigatória")
+    @DecimalMin(value = "0.01", message = "Área deve ser maior que zero")
+    @Digits(integer = 8, fraction = 2, message = "Área deve ter no máximo 8 dígitos inteiros e 2 decimais")
+    private BigDecimal areaHectares;
+
+    @NotBlank(message = "Tipo de pasto é obrigatório")
+    @Size(max = 100, message = "Tipo de pasto deve ter no máximo 100 caracteres")
+    private String tipoPasto;
+
+    @NotNull(message = "Capacidade de suporte é obrigatória")
+    @Min(value = 1, message = "Capacidade de suporte deve ser pelo menos 1")
+    @Max(value = 10000, message = "Capacidade de suporte não pode exceder 10.000")
+    private Integer capacidadeSuporte;
+
+    @NotNull(message = "Propriedade é obrigatória")
+    private Long propriedadeId;
+}
@@ -0,0 +1,12 @@
+package com.pastagem.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Linha da exportação NDJSON de pastagens.
+ */
+public record PastagemExportDTO(Long id, String nome, BigDecimal areaHectares, String tipoPasto,
+                                Integer capacidadeSuporte, Long propriedadeId,
+                                LocalDateTime createdAt, LocalDateTime updatedAt) {
+}
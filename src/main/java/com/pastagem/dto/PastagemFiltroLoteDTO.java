@@ -0,0 +1,20 @@
+package com.pastagem.dto;
+
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+import java.util.List;
+
+/**
+ * Seleção das pastagens de uma operação em lote: lista de IDs ou filtro por
+ * propriedade e/ou tipo de pasto (um dos dois, nunca ambos).
+ */
+@Data
+public class PastagemFiltroLoteDTO {
+
+    private List<Long> ids;
+
+    private Long propriedadeId;
+
+    @Size(max = 100, message = "Tipo de pasto deve ter no máximo 100 caracteres")
+    private String tipoPasto;
+}
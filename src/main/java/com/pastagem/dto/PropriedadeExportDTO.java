@@ -0,0 +1,12 @@
+package com.pastagem.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Linha da exportação NDJSON de propriedades.
+ */
+public record PropriedadeExportDTO(Long id, String nome, String endereco, BigDecimal areaTotal,
+                                   String cidade, String estado, Long usuarioId,
+                                   LocalDateTime createdAt, LocalDateTime updatedAt) {
+}
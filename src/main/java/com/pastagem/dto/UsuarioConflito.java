@@ -0,0 +1,7 @@
+package com.pastagem.dto;
+
+/**
+ * Usuário que já ocupa o CPF ou o e-mail informado em um cadastro.
+ */
+public record UsuarioConflito(Long id, String cpf, String email) {
+}
@@ -0,0 +1,12 @@
+package com.pastagem.dto;
+
+import com.pastagem.model.Cargo;
+
+import java.time.LocalDateTime;
+
+/**
+ * Linha da exportação NDJSON de usuários.
+ */
+public record UsuarioExportDTO(Long id, String nome, String cpf, String telefone, String email, Cargo cargo,
+                               LocalDateTime createdAt, LocalDateTime updatedAt) {
+}
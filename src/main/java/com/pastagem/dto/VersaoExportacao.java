@@ -0,0 +1,19 @@
+package com.pastagem.dto;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Quantidade de registros e última alteração de uma exportação filtrada, usados
+ * como ETag e Last-Modified para responder 304 sem reler os dados.
+ */
+public record VersaoExportacao(Long total, LocalDateTime ultimaAtualizacao) {
+
+    public String etag() {
+        return "W/\"" + total + "-" + ultimaAtualizacaoMillis() + "\"";
+    }
+
+    public long ultimaAtualizacaoMillis() {
+        return ultimaAtualizacao == null ? -1 : ultimaAtualizacao.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -15,8 +15,10 @@ import java.time.LocalDateTime;
 @Setter
 public abstract class BaseEntity {
 
+    // Sequence por entidade (<tabela>_seq, incremento 50) com otimizador pooled-lo:
+    // os IDs são reservados em blocos e os INSERTs podem ir em batch JDBC
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE)
     private Long id;
 
     @CreatedDate
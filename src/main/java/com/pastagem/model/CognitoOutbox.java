@@ -0,0 +1,63 @@
+package com.pastagem.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import java.time.LocalDateTime;
+
+/**
+ * Operação pendente no Cognito, gravada na mesma transação da alteração do
+ * {@link Usuario} e enviada depois pelo worker do outbox.
+ */
+@Entity
+@Table(name = "cognito_outbox")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CognitoOutbox extends BaseEntity {
+
+    public enum Operacao {
+        EXCLUIR_USUARIO,
+        ATUALIZAR_ATRIBUTOS
+    }
+
+    public enum Status {
+        PENDENTE,
+        PROCESSANDO,
+        FALHOU
+    }
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "operacao", nullable = false, length = 30)
+    private Operacao operacao;
+
+    // Username atual no Cognito (o e-mail antes da alteração)
+    @Column(name = "email", nullable = false, length = 100)
+    private String email;
+
+    @Column(name = "novo_email", length = 100)
+    private String novoEmail;
+
+    @Column(name = "nome", length = 100)
+    private String nome;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    @Builder.Default
+    private Status status = Status.PENDENTE;
+
+    @Column(name = "tentativas", nullable = false)
+    @Builder.Default
+    private int tentativas = 0;
+
+    @Column(name = "proxima_tentativa", nullable = false)
+    private LocalDateTime proximaTentativa;
+
+    @Column(name = "ultimo_erro", length = 1000)
+    private String ultimoErro;
+}
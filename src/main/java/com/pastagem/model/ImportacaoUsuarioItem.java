@@ -0,0 +1,52 @@
+package com.pastagem.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+
+/**
+ * Resultado de uma linha de uma {@link ImportacaoUsuarios}.
+ *
+ * Gravado em lote via JDBC ({@code ON CONFLICT (id_importacao, linha)}), por isso
+ * a tabela é lida por JPA mas escrita pelo serviço de importação.
+ */
+@Entity
+@Table(name = "importacao_usuario_item",
+       uniqueConstraints = @UniqueConstraint(name = "uk_importacao_item_linha", columnNames = {"id_importacao", "linha"}))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ImportacaoUsuarioItem extends BaseEntity {
+
+    public enum Status {
+        // Criado no Cognito, ainda sem linha em usuario
+        PROVISIONADO,
+        CRIADO,
+        ERRO
+    }
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "id_importacao", nullable = false, foreignKey = @ForeignKey(name = "FK_ImportacaoItem_Importacao"))
+    private ImportacaoUsuarios importacao;
+
+    @Column(name = "linha", nullable = false)
+    private int linha;
+
+    @Column(name = "email", length = 100)
+    private String email;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private Status status;
+
+    @Column(name = "mensagem", length = 500)
+    private String mensagem;
+
+    @Column(name = "cognito_id")
+    private String cognitoId;
+}
@@ -0,0 +1,39 @@
+package com.pastagem.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+
+/**
+ * Importação em lote de usuários. O resultado de cada linha fica em
+ * {@link ImportacaoUsuarioItem}; senhas nunca são gravadas, então retomar uma
+ * importação interrompida significa reenviar o mesmo arquivo para ela.
+ */
+@Entity
+@Table(name = "importacao_usuarios")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ImportacaoUsuarios extends BaseEntity {
+
+    public enum Status {
+        PROCESSANDO,
+        CONCLUIDA,
+        INTERROMPIDA
+    }
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private Status status;
+
+    @Column(name = "total_linhas", nullable = false)
+    private int totalLinhas;
+
+    @Column(name = "id_usuario_responsavel", nullable = false)
+    private Long idUsuarioResponsavel;
+}
@@ -2,12 +2,14 @@ package com.pastagem.model;
 
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import java.math.BigDecimal;
 
 @Entity
@@ -19,6 +21,9 @@ import java.math.BigDecimal;
 @Builder
 public class Pastagem extends BaseEntity {
 
+    // Acima disso a lotação é considerada inadequada (animais por hectare)
+    public static final BigDecimal DENSIDADE_MAXIMA_ADEQUADA = BigDecimal.valueOf(2.0);
+
     @Column(name = "nome", nullable = false, length = 100)
     @NotBlank(message = "Nome da pastagem é obrigatório")
     @Size(max = 100, message = "Nome deve ter no máximo 100 caracteres")
@@ -41,6 +46,13 @@ public class Pastagem extends BaseEntity {
     @Max(value = 10000, message = "Capacidade de suporte não pode exceder 10.000")
     private Integer capacidadeSuporte;
 
+    // Coluna gerada pelo banco (migração V6) a partir da capacidade e da área; usada
+    // apenas nas consultas por densidade. Em memória use calcularDensidadePorHectare()
+    @Column(name = "densidade", insertable = false, updatable = false, precision = 14, scale = 2)
+    @Setter(AccessLevel.NONE)
+    @JsonIgnore
+    private BigDecimal densidade;
+
     // Relacionamento Many-to-One com Propriedade
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "id_propriedade", nullable = false, foreignKey = @ForeignKey(name = "FK_Pastagem_Propriedade"))
@@ -81,6 +93,6 @@ public class Pastagem extends BaseEntity {
     public boolean isCapacidadeAdequada() {
         BigDecimal densidade = calcularDensidadePorHectare();
         // Considerando uma densidade máxima recomendada de 2 animais por hectare
-        return densidade.compareTo(BigDecimal.valueOf(2.0)) <= 0;
+        return densidade.compareTo(DENSIDADE_MAXIMA_ADEQUADA) <= 0;
     }
 }
\ No newline at end of file
@@ -0,0 +1,37 @@
+package com.pastagem.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+import java.math.BigDecimal;
+
+/**
+ * Agregados das pastagens de uma propriedade. A tabela é mantida pelos triggers de
+ * {@code pastagem} (migração V5) na mesma transação de cada alteração, por isso a
+ * entidade é somente leitura.
+ */
+@Entity
+@Immutable
+@Table(name = "propriedade_resumo")
+@Getter
+@NoArgsConstructor
+public class PropriedadeResumo {
+
+    @Id
+    @Column(name = "id_propriedade")
+    private Long idPropriedade;
+
+    @Column(name = "total_pastagens", nullable = false)
+    private long totalPastagens;
+
+    @Column(name = "area_pastagens", nullable = false, precision = 14, scale = 2)
+    private BigDecimal areaPastagens;
+
+    @Column(name = "capacidade_total", nullable = false)
+    private long capacidadeTotal;
+
+    // Soma das densidades (animais/hectare) já arredondadas de cada pastagem
+    @Column(name = "soma_densidades", nullable = false, precision = 18, scale = 2)
+    private BigDecimal somaDensidades;
+}
@@ -64,6 +64,11 @@ public class Usuario extends BaseEntity {
     @PrePersist
     @PreUpdate
     private void validateData() {
+        normalizar();
+    }
+
+    // Mesma forma gravada no banco; a validação de campos roda sobre ela
+    public void normalizar() {
         if (nome != null) {
             nome = nome.trim();
         }
@@ -0,0 +1,34 @@
+package com.pastagem.repository;
+
+import com.pastagem.model.CognitoOutbox;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface CognitoOutboxRepository extends JpaRepository<CognitoOutbox, Long> {
+
+    // Próximo lote a processar. SKIP LOCKED permite várias instâncias do worker sem
+    // disputa; itens PROCESSANDO cujo prazo venceu (worker interrompido) voltam à fila.
+    // Operações sobre a mesma conta são aplicadas na ordem do id: um item só é reservado
+    // quando nenhum item anterior não concluído cita o mesmo e-mail (antigo ou novo).
+    // Um item aguardando nova tentativa segura os seguintes, e um item FALHOU interrompe
+    // a sequência daquela conta até ser resolvido (excluído) manualmente.
+    @Query(value = """
+        SELECT * FROM cognito_outbox o
+        WHERE o.status IN ('PENDENTE', 'PROCESSANDO') AND o.proxima_tentativa <= :agora
+          AND NOT EXISTS (
+              SELECT 1 FROM cognito_outbox a
+              WHERE a.id < o.id
+                AND (lower(a.email) IN (lower(o.email), lower(o.novo_email))
+                     OR lower(a.novo_email) IN (lower(o.email), lower(o.novo_email))))
+        ORDER BY o.id
+        LIMIT :limite
+        FOR UPDATE OF o SKIP LOCKED
+        """, nativeQuery = true)
+    List<CognitoOutbox> reservarLote(@Param("agora") LocalDateTime agora, @Param("limite") int limite);
+}
@@ -0,0 +1,33 @@
+package com.pastagem.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Estimativas de tamanho de tabela a partir das estatísticas do PostgreSQL,
+ * usadas no lugar de {@code COUNT(*)} nas listagens por keyset.
+ */
+@Repository
+public class EstatisticaTabelaRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public EstatisticaTabelaRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Quantidade aproximada de linhas segundo o último ANALYZE, ou {@code null}
+     * se a tabela ainda não foi analisada.
+     */
+    public Long estimarLinhas(String tabela) {
+        List<Long> resultado = jdbcTemplate.queryForList(
+                "SELECT reltuples::bigint FROM pg_class WHERE oid = to_regclass(?)", Long.class, tabela);
+        if (resultado.isEmpty() || resultado.get(0) == null || resultado.get(0) < 0) {
+            return null;
+        }
+        return resultado.get(0);
+    }
+}
@@ -0,0 +1,33 @@
+package com.pastagem.repository;
+
+import com.pastagem.model.ImportacaoUsuarioItem;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+
+@Repository
+public interface ImportacaoUsuarioItemRepository extends JpaRepository<ImportacaoUsuarioItem, Long> {
+
+    Page<ImportacaoUsuarioItem> findByImportacaoId(Long importacaoId, Pageable pageable);
+
+    Page<ImportacaoUsuarioItem> findByImportacaoIdAndStatus(Long importacaoId, ImportacaoUsuarioItem.Status status, Pageable pageable);
+
+    // Contagem por status para o resumo da importação: [status, quantidade]
+    @Query("SELECT i.status, COUNT(i) FROM ImportacaoUsuarioItem i WHERE i.importacao.id = :importacaoId GROUP BY i.status")
+    List<Object[]> countByStatus(@Param("importacaoId") Long importacaoId);
+
+    List<ImportacaoUsuarioItem> findByImportacaoIdAndStatusIn(Long importacaoId, Collection<ImportacaoUsuarioItem.Status> status);
+
+    // Linhas já tratadas em uma execução anterior (para retomar a importação)
+    default List<ImportacaoUsuarioItem> findProcessados(Long importacaoId) {
+        return findByImportacaoIdAndStatusIn(importacaoId,
+                EnumSet.of(ImportacaoUsuarioItem.Status.PROVISIONADO, ImportacaoUsuarioItem.Status.CRIADO));
+    }
+}
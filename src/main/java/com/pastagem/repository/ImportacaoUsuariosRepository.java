@@ -0,0 +1,9 @@
+package com.pastagem.repository;
+
+import com.pastagem.model.ImportacaoUsuarios;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ImportacaoUsuariosRepository extends JpaRepository<ImportacaoUsuarios, Long> {
+}
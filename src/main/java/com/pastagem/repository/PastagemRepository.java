@@ -1,23 +1,140 @@
 package com.pastagem.repository;
 
+import com.pastagem.dto.PastagemExportDTO;
+import com.pastagem.dto.VersaoExportacao;
 import com.pastagem.model.Pastagem;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.QueryHint;
+
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface PastagemRepository extends JpaRepository<Pastagem, Long> {
 
+    // Listagem por keyset (sem OFFSET nem COUNT)
+    @Query("SELECT p FROM Pastagem p WHERE p.id > :id ORDER BY p.id")
+    Slice<Pastagem> findAposId(@Param("id") long id, Pageable pageable);
+
+    @Query(value = """
+        SELECT * FROM pastagem
+        WHERE (updated_at, id) > (:updatedAt, :id)
+        ORDER BY updated_at, id
+        """, nativeQuery = true)
+    Slice<Pastagem> findAposAtualizacao(@Param("updatedAt") LocalDateTime updatedAt, @Param("id") long id, Pageable pageable);
+
+    // Exportação em streaming: projeção (nada entra no contexto de persistência)
+    // lida em blocos pelo cursor do driver; precisa de transação aberta
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("""
+        SELECT new com.pastagem.dto.PastagemExportDTO(p.id, p.nome, p.areaHectares, p.tipoPasto,
+            p.capacidadeSuporte, p.propriedade.id, p.createdAt, p.updatedAt)
+        FROM Pastagem p
+        WHERE (:propriedadeId IS NULL OR p.propriedade.id = :propriedadeId)
+          AND (:tipoPasto IS NULL OR LOWER(p.tipoPasto) = LOWER(:tipoPasto))
+          AND (:desde IS NULL OR p.updatedAt >= :desde)
+        ORDER BY p.id
+        """)
+    Stream<PastagemExportDTO> streamExportacao(@Param("propriedadeId") Long propriedadeId,
+                                               @Param("tipoPasto") String tipoPasto,
+                                               @Param("desde") LocalDateTime desde);
+
+    @Query("""
+        SELECT new com.pastagem.dto.VersaoExportacao(COUNT(p), MAX(p.updatedAt))
+        FROM Pastagem p
+        WHERE (:propriedadeId IS NULL OR p.propriedade.id = :propriedadeId)
+          AND (:tipoPasto IS NULL OR LOWER(p.tipoPasto) = LOWER(:tipoPasto))
+          AND (:desde IS NULL OR p.updatedAt >= :desde)
+        """)
+    VersaoExportacao findVersaoExportacao(@Param("propriedadeId") Long propriedadeId,
+                                          @Param("tipoPasto") String tipoPasto,
+                                          @Param("desde") LocalDateTime desde);
+
+    // Operações em lote: um único comando; o dono (usuarioId nulo = administrador)
+    // é verificado no próprio WHERE
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = """
+        UPDATE pastagem p
+        SET tipo_pasto = COALESCE(CAST(:novoTipoPasto AS varchar), p.tipo_pasto),
+            id_propriedade = COALESCE(CAST(:novaPropriedadeId AS bigint), p.id_propriedade),
+            updated_at = :agora
+        WHERE p.id IN (:ids)
+          AND (CAST(:usuarioId AS bigint) IS NULL OR EXISTS (
+                SELECT 1 FROM propriedade pr WHERE pr.id = p.id_propriedade AND pr.id_usuario = :usuarioId))
+        """, nativeQuery = true)
+    int atualizarPorIds(@Param("ids") Collection<Long> ids, @Param("usuarioId") Long usuarioId,
+                        @Param("novoTipoPasto") String novoTipoPasto, @Param("novaPropriedadeId") Long novaPropriedadeId,
+                        @Param("agora") LocalDateTime agora);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = """
+        UPDATE pastagem p
+        SET tipo_pasto = COALESCE(CAST(:novoTipoPasto AS varchar), p.tipo_pasto),
+            id_propriedade = COALESCE(CAST(:novaPropriedadeId AS bigint), p.id_propriedade),
+            updated_at = :agora
+        WHERE (CAST(:propriedadeId AS bigint) IS NULL OR p.id_propriedade = :propriedadeId)
+          AND (CAST(:tipoPasto AS varchar) IS NULL OR upper(p.tipo_pasto) = upper(:tipoPasto))
+          AND (CAST(:usuarioId AS bigint) IS NULL OR EXISTS (
+                SELECT 1 FROM propriedade pr WHERE pr.id = p.id_propriedade AND pr.id_usuario = :usuarioId))
+        """, nativeQuery = true)
+    int atualizarPorFiltro(@Param("propriedadeId") Long propriedadeId, @Param("tipoPasto") String tipoPasto,
+                           @Param("usuarioId") Long usuarioId, @Param("novoTipoPasto") String novoTipoPasto,
+                           @Param("novaPropriedadeId") Long novaPropriedadeId, @Param("agora") LocalDateTime agora);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = """
+        DELETE FROM pastagem p
+        WHERE p.id IN (:ids)
+          AND (CAST(:usuarioId AS bigint) IS NULL OR EXISTS (
+                SELECT 1 FROM propriedade pr WHERE pr.id = p.id_propriedade AND pr.id_usuario = :usuarioId))
+        """, nativeQuery = true)
+    int excluirPorIds(@Param("ids") Collection<Long> ids, @Param("usuarioId") Long usuarioId);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = """
+        DELETE FROM pastagem p
+        WHERE (CAST(:propriedadeId AS bigint) IS NULL OR p.id_propriedade = :propriedadeId)
+          AND (CAST(:tipoPasto AS varchar) IS NULL OR upper(p.tipo_pasto) = upper(:tipoPasto))
+          AND (CAST(:usuarioId AS bigint) IS NULL OR EXISTS (
+                SELECT 1 FROM propriedade pr WHERE pr.id = p.id_propriedade AND pr.id_usuario = :usuarioId))
+        """, nativeQuery = true)
+    int excluirPorFiltro(@Param("propriedadeId") Long propriedadeId, @Param("tipoPasto") String tipoPasto,
+                         @Param("usuarioId") Long usuarioId);
+
     // Busca por propriedade
     List<Pastagem> findByPropriedadeId(Long propriedadeId);
     
     // Busca por tipo de pasto (case-insensitive)
     List<Pastagem> findByTipoPastoIgnoreCase(String tipoPasto);
+
+    // Área gravada da pastagem, se ela pertence à propriedade (já contada no resumo)
+    @Query("SELECT p.areaHectares FROM Pastagem p WHERE p.id = :id AND p.propriedade.id = :propriedadeId")
+    Optional<BigDecimal> findAreaHectares(@Param("id") Long id, @Param("propriedadeId") Long propriedadeId);
     
+    // Pesquisa por nome sem acentos, pelo índice de trigramas (idx_pastagem_nome_trgm),
+    // ordenada pela semelhança com o termo
+    @Query(value = """
+        SELECT * FROM pastagem
+        WHERE (f_unaccent(lower(nome)) LIKE f_unaccent(lower(:padrao))
+           OR f_unaccent(lower(:termo)) <% f_unaccent(lower(nome)))
+        ORDER BY word_similarity(f_unaccent(lower(:termo)), f_unaccent(lower(nome))) DESC, id
+        """, nativeQuery = true)
+    Slice<Pastagem> pesquisarPorNome(@Param("termo") String termo, @Param("padrao") String padrao, Pageable pageable);
+
     // Busca por nome contendo (case-insensitive)
     List<Pastagem> findByNomeContainingIgnoreCase(String nome);
     
@@ -60,24 +177,32 @@ public interface PastagemRepository extends JpaRepository<Pastagem, Long> {
         """)
     List<Object[]> findRelatorioPorTipoPasto();
     
-    // Query para buscar pastagens por faixa de densidade
+    // Consultas por densidade sobre a coluna gerada: varreduras de intervalo nos índices
+    // (densidade, id) e (id_propriedade, densidade, id), percorridos de trás para frente
+    @Query("""
+        SELECT p FROM Pastagem p
+        WHERE p.densidade > :densidadeMaxima
+        ORDER BY p.densidade DESC, p.id DESC
+        """)
+    Slice<Pastagem> findByDensidadeAcimaDe(@Param("densidadeMaxima") BigDecimal densidadeMaxima, Pageable pageable);
+
     @Query("""
-        SELECT p FROM Pastagem p 
-        WHERE (p.capacidadeSuporte / p.areaHectares) BETWEEN :densidadeMin AND :densidadeMax
-        ORDER BY (p.capacidadeSuporte / p.areaHectares) DESC
+        SELECT p FROM Pastagem p
+        WHERE p.densidade BETWEEN :densidadeMin AND :densidadeMax
+        ORDER BY p.densidade DESC, p.id DESC
         """)
-    List<Pastagem> findByDensidadeBetween(
-        @Param("densidadeMin") BigDecimal densidadeMin, 
-        @Param("densidadeMax") BigDecimal densidadeMax
+    Slice<Pastagem> findByDensidadeBetween(
+        @Param("densidadeMin") BigDecimal densidadeMin,
+        @Param("densidadeMax") BigDecimal densidadeMax,
+        Pageable pageable
     );
-    
-    // Query para buscar pastagens com maior densidade por propriedade
+
     @Query("""
         SELECT p FROM Pastagem p
         WHERE p.propriedade.id = :propriedadeId
-        ORDER BY (p.capacidadeSuporte / p.areaHectares) DESC
+        ORDER BY p.densidade DESC, p.id DESC
         """)
-    List<Pastagem> findByPropriedadeIdOrderByDensidadeDesc(@Param("propriedadeId") Long propriedadeId);
+    Slice<Pastagem> findByPropriedadeIdOrderByDensidadeDesc(@Param("propriedadeId") Long propriedadeId, Pageable pageable);
     
     // Query para estatísticas gerais
     @Query("""
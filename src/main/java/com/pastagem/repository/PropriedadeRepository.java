@@ -1,17 +1,27 @@
 package com.pastagem.repository;
 
+import com.pastagem.dto.PropriedadeExportDTO;
+import com.pastagem.dto.VersaoExportacao;
 import com.pastagem.model.Propriedade;
 import com.pastagem.model.Pastagem;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import java.math.BigDecimal;
+import jakarta.persistence.QueryHint;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface PropriedadeRepository extends JpaRepository<Propriedade, Long> {
@@ -21,7 +31,55 @@ public interface PropriedadeRepository extends JpaRepository<Propriedade, Long>
     Page<Propriedade> findByUsuarioId(Long usuarioId, Pageable pageable);
     Optional<Propriedade> findByIdAndUsuarioId(Long id, Long usuarioId);
     boolean existsByIdAndUsuarioId(Long id, Long usuarioId);
+    long countByUsuarioId(Long usuarioId);
+
+    // Verificação em conjunto das propriedades referenciadas (uma consulta para o lote inteiro)
+    @Query("SELECT p.id FROM Propriedade p WHERE p.id IN :ids AND (:usuarioId IS NULL OR p.usuario.id = :usuarioId)")
+    List<Long> findIdsExistentes(@Param("ids") Collection<Long> ids, @Param("usuarioId") Long usuarioId);
+
+    // Listagem por keyset das propriedades de um usuário (sem OFFSET nem COUNT)
+    @Query("SELECT p FROM Propriedade p WHERE p.usuario.id = :usuarioId AND p.id > :id ORDER BY p.id")
+    Slice<Propriedade> findByUsuarioIdAposId(@Param("usuarioId") Long usuarioId, @Param("id") long id, Pageable pageable);
+
+    @Query(value = """
+        SELECT * FROM propriedade
+        WHERE id_usuario = :usuarioId AND (updated_at, id) > (:updatedAt, :id)
+        ORDER BY updated_at, id
+        """, nativeQuery = true)
+    Slice<Propriedade> findByUsuarioIdAposAtualizacao(@Param("usuarioId") Long usuarioId,
+                                                      @Param("updatedAt") LocalDateTime updatedAt,
+                                                      @Param("id") long id, Pageable pageable);
     
+    // Exportação em streaming: projeção lida em blocos pelo cursor do driver
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("""
+        SELECT new com.pastagem.dto.PropriedadeExportDTO(p.id, p.nome, p.endereco, p.areaTotal,
+            p.cidade, p.estado, p.usuario.id, p.createdAt, p.updatedAt)
+        FROM Propriedade p
+        WHERE (:usuarioId IS NULL OR p.usuario.id = :usuarioId)
+          AND (:cidade IS NULL OR LOWER(p.cidade) = LOWER(:cidade))
+          AND (:estado IS NULL OR LOWER(p.estado) = LOWER(:estado))
+          AND (:desde IS NULL OR p.updatedAt >= :desde)
+        ORDER BY p.id
+        """)
+    Stream<PropriedadeExportDTO> streamExportacao(@Param("usuarioId") Long usuarioId,
+                                                  @Param("cidade") String cidade,
+                                                  @Param("estado") String estado,
+                                                  @Param("desde") LocalDateTime desde);
+
+    @Query("""
+        SELECT new com.pastagem.dto.VersaoExportacao(COUNT(p), MAX(p.updatedAt))
+        FROM Propriedade p
+        WHERE (:usuarioId IS NULL OR p.usuario.id = :usuarioId)
+          AND (:cidade IS NULL OR LOWER(p.cidade) = LOWER(:cidade))
+          AND (:estado IS NULL OR LOWER(p.estado) = LOWER(:estado))
+          AND (:desde IS NULL OR p.updatedAt >= :desde)
+        """)
+    VersaoExportacao findVersaoExportacao(@Param("usuarioId") Long usuarioId,
+                                          @Param("cidade") String cidade,
+                                          @Param("estado") String estado,
+                                          @Param("desde") LocalDateTime desde);
+
     // Busca por cidade (case-insensitive)
     List<Propriedade> findByCidadeIgnoreCase(String cidade);
     List<Propriedade> findByUsuarioIdAndCidadeIgnoreCase(Long usuarioId, String cidade);
@@ -30,6 +88,17 @@ public interface PropriedadeRepository extends JpaRepository<Propriedade, Long>
     List<Propriedade> findByEstadoIgnoreCase(String estado);
     List<Propriedade> findByUsuarioIdAndEstadoIgnoreCase(Long usuarioId, String estado);
     
+    // Pesquisa por nome sem acentos, ordenada pela semelhança com o termo
+    @Query(value = """
+        SELECT * FROM propriedade
+        WHERE id_usuario = :usuarioId
+          AND (f_unaccent(lower(nome)) LIKE f_unaccent(lower(:padrao))
+           OR f_unaccent(lower(:termo)) <% f_unaccent(lower(nome)))
+        ORDER BY word_similarity(f_unaccent(lower(:termo)), f_unaccent(lower(nome))) DESC, id
+        """, nativeQuery = true)
+    Slice<Propriedade> pesquisarPorNome(@Param("usuarioId") Long usuarioId, @Param("termo") String termo,
+                                        @Param("padrao") String padrao, Pageable pageable);
+
     // Busca por nome contendo (case-insensitive)
     List<Propriedade> findByNomeContainingIgnoreCase(String nome);
     List<Propriedade> findByUsuarioIdAndNomeContainingIgnoreCase(Long usuarioId, String nome);
@@ -41,11 +110,4 @@ public interface PropriedadeRepository extends JpaRepository<Propriedade, Long>
     // Query personalizada para buscar pastagens de uma propriedade
     @Query("SELECT p.pastagens FROM Propriedade p WHERE p.id = :propriedadeId")
     List<Pastagem> findPastagensByPropriedadeId(@Param("propriedadeId") Long propriedadeId);
-    
-    // Query personalizada para contar pastagens de uma propriedade
-    @Query("SELECT COUNT(p) FROM Pastagem p WHERE p.propriedade.id = :propriedadeId")
-    long countPastagensByPropriedadeId(@Param("propriedadeId") Long propriedadeId);
-    
-    @Query("SELECT COALESCE(SUM(p.areaHectares), 0) FROM Pastagem p WHERE p.propriedade.id = :propriedadeId")
-    BigDecimal calcularAreaTotalPastagens(@Param("propriedadeId") Long propriedadeId);
 }
\ No newline at end of file
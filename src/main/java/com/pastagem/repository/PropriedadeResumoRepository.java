@@ -0,0 +1,62 @@
+package com.pastagem.repository;
+
+import com.pastagem.dto.AreaPropriedade;
+import com.pastagem.dto.PainelPropriedade;
+import com.pastagem.model.PropriedadeResumo;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface PropriedadeResumoRepository extends JpaRepository<PropriedadeResumo, Long> {
+
+    // Área da propriedade e área ocupada em uma consulta; também confirma existência e dono
+    // (usuarioId nulo = administrador, sem restrição de dono)
+    @Query("""
+        SELECT new com.pastagem.dto.AreaPropriedade(p.id, p.areaTotal, r.areaPastagens)
+        FROM Propriedade p LEFT JOIN PropriedadeResumo r ON r.idPropriedade = p.id
+        WHERE p.id IN :ids AND (:usuarioId IS NULL OR p.usuario.id = :usuarioId)
+        """)
+    List<AreaPropriedade> findAreas(@Param("ids") Collection<Long> ids, @Param("usuarioId") Long usuarioId);
+
+    @Query("SELECT r.totalPastagens FROM PropriedadeResumo r WHERE r.idPropriedade = :id")
+    Optional<Long> findTotalPastagens(@Param("id") Long id);
+
+    // Propriedade sem pastagens ainda não tem linha no resumo; cria zerada para poder bloqueá-la
+    @Modifying
+    @Query(value = """
+        INSERT INTO propriedade_resumo (id_propriedade)
+        SELECT p.id FROM propriedade p WHERE p.id IN (:ids) ORDER BY p.id
+        ON CONFLICT (id_propriedade) DO NOTHING
+        """, nativeQuery = true)
+    int criarResumos(@Param("ids") Collection<Long> ids);
+
+    // Bloqueia as linhas do resumo até o fim da transação, sempre em ordem de id
+    // (a mesma do trigger) para não haver deadlock entre lotes
+    @Query(value = """
+        SELECT r.id_propriedade FROM propriedade_resumo r
+        WHERE r.id_propriedade IN (:ids)
+        ORDER BY r.id_propriedade
+        FOR UPDATE
+        """, nativeQuery = true)
+    List<Long> bloquear(@Param("ids") Collection<Long> ids);
+
+    // Painel da propriedade em uma consulta: agregados pela chave do resumo e a maior
+    // densidade pelo índice (id_propriedade, densidade, id); nenhuma entidade é carregada
+    @Query("""
+        SELECT new com.pastagem.dto.PainelPropriedade(
+            p.id, p.nome, p.areaTotal,
+            r.totalPastagens, r.areaPastagens, r.capacidadeTotal,
+            CASE WHEN r.totalPastagens > 0 THEN ROUND(r.somaDensidades / r.totalPastagens, 2) END,
+            (SELECT MAX(pa.densidade) FROM Pastagem pa WHERE pa.propriedade.id = p.id))
+        FROM Propriedade p LEFT JOIN PropriedadeResumo r ON r.idPropriedade = p.id
+        WHERE p.id = :id AND (:usuarioId IS NULL OR p.usuario.id = :usuarioId)
+        """)
+    Optional<PainelPropriedade> findPainel(@Param("id") Long id, @Param("usuarioId") Long usuarioId);
+}
@@ -1,31 +1,88 @@
 package com.pastagem.repository;
 
+import com.pastagem.dto.UsuarioConflito;
+import com.pastagem.dto.UsuarioExportDTO;
+import com.pastagem.dto.VersaoExportacao;
 import com.pastagem.model.Usuario;
 import com.pastagem.model.Propriedade;
 import com.pastagem.model.Cargo;
+import com.pastagem.security.UsuarioPrincipal;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.QueryHint;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
 
+    // Listagem por keyset (sem OFFSET nem COUNT)
+    @Query("SELECT u FROM Usuario u WHERE u.id > :id ORDER BY u.id")
+    Slice<Usuario> findAposId(@Param("id") long id, Pageable pageable);
+
+    @Query(value = """
+        SELECT * FROM usuario
+        WHERE (updated_at, id) > (:updatedAt, :id)
+        ORDER BY updated_at, id
+        """, nativeQuery = true)
+    Slice<Usuario> findAposAtualizacao(@Param("updatedAt") LocalDateTime updatedAt, @Param("id") long id, Pageable pageable);
+
+    // Exportação em streaming: projeção lida em blocos pelo cursor do driver
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("""
+        SELECT new com.pastagem.dto.UsuarioExportDTO(u.id, u.nome, u.cpf, u.telefone, u.email, u.cargo,
+            u.createdAt, u.updatedAt)
+        FROM Usuario u
+        WHERE (:cargo IS NULL OR u.cargo = :cargo)
+          AND (:desde IS NULL OR u.updatedAt >= :desde)
+        ORDER BY u.id
+        """)
+    Stream<UsuarioExportDTO> streamExportacao(@Param("cargo") Cargo cargo, @Param("desde") LocalDateTime desde);
+
+    @Query("""
+        SELECT new com.pastagem.dto.VersaoExportacao(COUNT(u), MAX(u.updatedAt))
+        FROM Usuario u
+        WHERE (:cargo IS NULL OR u.cargo = :cargo)
+          AND (:desde IS NULL OR u.updatedAt >= :desde)
+        """)
+    VersaoExportacao findVersaoExportacao(@Param("cargo") Cargo cargo, @Param("desde") LocalDateTime desde);
+
     // Busca por CPF
     Optional<Usuario> findByCpf(String cpf);
     
     // Verificar existência por CPF
     boolean existsByCpf(String cpf);
     
-    // Busca por email (case-insensitive)
-    Optional<Usuario> findByEmailIgnoreCase(String email);
+    // Busca por email (case-insensitive), pelo índice idx_usuario_email_lower
+    @Query("SELECT u FROM Usuario u WHERE LOWER(u.email) = LOWER(:email)")
+    Optional<Usuario> findByEmailIgnoreCase(@Param("email") String email);
     
     // Verificar existência por email (case-insensitive)
-    boolean existsByEmailIgnoreCase(String email);
+    @Query("SELECT COUNT(u) > 0 FROM Usuario u WHERE LOWER(u.email) = LOWER(:email)")
+    boolean existsByEmailIgnoreCase(@Param("email") String email);
     
+    // Pesquisa por nome sem acentos, pelo índice de trigramas (idx_usuario_nome_trgm),
+    // ordenada pela semelhança com o termo
+    @Query(value = """
+        SELECT * FROM usuario
+        WHERE (f_unaccent(lower(nome)) LIKE f_unaccent(lower(:padrao))
+           OR f_unaccent(lower(:termo)) <% f_unaccent(lower(nome)))
+        ORDER BY word_similarity(f_unaccent(lower(:termo)), f_unaccent(lower(nome))) DESC, id
+        """, nativeQuery = true)
+    Slice<Usuario> pesquisarPorNome(@Param("termo") String termo, @Param("padrao") String padrao, Pageable pageable);
+
     // Busca por nome contendo (case-insensitive)
     List<Usuario> findByNomeContainingIgnoreCase(String nome);
     
@@ -42,5 +99,28 @@ public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
 
     Optional<Usuario> findByCognitoId(String cognitoId);
 
+    // Projeção usada como principal da autenticação (não carrega a entidade)
+    @Query("""
+        SELECT new com.pastagem.security.UsuarioPrincipal(u.id, u.cognitoId, u.nome, u.email, u.cargo)
+        FROM Usuario u
+        WHERE u.cognitoId = :cognitoId
+        """)
+    Optional<UsuarioPrincipal> findPrincipalByCognitoId(@Param("cognitoId") String cognitoId);
+
     Optional<Usuario> findByEmail(String email);
+
+    // Usuários que já usam o CPF ou o e-mail (uma única consulta para as duas verificações)
+    @Query("""
+        SELECT new com.pastagem.dto.UsuarioConflito(u.id, u.cpf, u.email)
+        FROM Usuario u
+        WHERE u.cpf = :cpf OR LOWER(u.email) = LOWER(:email)
+        """)
+    List<UsuarioConflito> findConflitos(@Param("cpf") String cpf, @Param("email") String email);
+
+    // Verificações em conjunto, usadas pela importação em lote
+    @Query("SELECT u.cpf FROM Usuario u WHERE u.cpf IN :cpfs")
+    List<String> findCpfsExistentes(@Param("cpfs") Collection<String> cpfs);
+
+    @Query("SELECT LOWER(u.email) FROM Usuario u WHERE LOWER(u.email) IN :emails")
+    List<String> findEmailsExistentes(@Param("emails") Collection<String> emails);
 }
\ No newline at end of file
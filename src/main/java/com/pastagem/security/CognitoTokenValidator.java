@@ -0,0 +1,123 @@
+package com.pastagem.security;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.interfaces.DecodedJWT;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Validação única dos tokens do Cognito, compartilhada pelo filtro de segurança
+ * e pelo interceptor de {@code /api/**}.
+ *
+ * Tokens de sessão internos (HS256, ver {@link SessionTokenService}) só são aceitos,
+ * e verificados apenas com HMAC, quando {@code security.session-token.enabled=true};
+ * caso contrário são recusados. O token verificado fica no atributo {@link #ATRIBUTO_TOKEN} da requisição, de
+ * modo que as camadas seguintes reaproveitam o resultado em vez de validar de novo.
+ */
+@Component
+public class CognitoTokenValidator {
+
+    public static final String ATRIBUTO_TOKEN = "cognitoUser";
+
+    private static final Logger logger = LoggerFactory.getLogger(CognitoTokenValidator.class);
+
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final JwksKeyProvider jwksKeyProvider;
+    private final Timer tempoCache;
+    private final Timer tempoVerificacao;
+    private final Timer tempoSessao;
+    private final Optional<SessionTokenService> sessionTokenService;
+
+    public CognitoTokenValidator(VerifiedTokenCache verifiedTokenCache, JwksKeyProvider jwksKeyProvider,
+                                 Optional<SessionTokenService> sessionTokenService, MeterRegistry meterRegistry) {
+        this.verifiedTokenCache = verifiedTokenCache;
+        this.jwksKeyProvider = jwksKeyProvider;
+        this.sessionTokenService = sessionTokenService;
+        this.tempoCache = Timer.builder("auth.token.validation")
+                .description("Tempo de validação do token do Cognito")
+                .tag("origem", "cache")
+                .register(meterRegistry);
+        this.tempoVerificacao = Timer.builder("auth.token.validation")
+                .description("Tempo de validação do token do Cognito")
+                .tag("origem", "rsa")
+                .register(meterRegistry);
+        this.tempoSessao = Timer.builder("auth.token.validation")
+                .description("Tempo de validação do token do Cognito")
+                .tag("origem", "hmac")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Retorna o token já validado nesta requisição, se houver.
+     */
+    public DecodedJWT tokenDaRequisicao(HttpServletRequest request) {
+        Object atributo = request.getAttribute(ATRIBUTO_TOKEN);
+        return atributo instanceof DecodedJWT jwt ? jwt : null;
+    }
+
+    /**
+     * Valida a assinatura do token e o registra na requisição.
+     *
+     * @throws JWTVerificationException se o token for inválido ou a chave pública não for encontrada
+     */
+    public DecodedJWT validar(HttpServletRequest request, String token) {
+        DecodedJWT jwt = validar(token);
+        request.setAttribute(ATRIBUTO_TOKEN, jwt);
+        return jwt;
+    }
+
+    /**
+     * Indica se o token validado é um token de sessão interno, e não do Cognito.
+     */
+    public boolean isTokenDeSessao(DecodedJWT jwt) {
+        return sessionTokenService.map(sessao -> sessao.isTokenDeSessao(jwt)).orElse(false);
+    }
+
+    public DecodedJWT validar(String token) {
+        long inicio = System.nanoTime();
+
+        // Token já verificado anteriormente: dispensa decodificação e verificação
+        DecodedJWT cachedJwt = verifiedTokenCache.get(token);
+        if (cachedJwt != null) {
+            tempoCache.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+            return cachedJwt;
+        }
+
+        DecodedJWT jwt = JWT.decode(token);
+
+        // Token de sessão interno: apenas o HMAC, sem cache nem JWKS
+        if ("HS256".equals(jwt.getAlgorithm())) {
+            SessionTokenService sessoes = sessionTokenService
+                    .orElseThrow(() -> new JWTVerificationException("Tokens de sessão desabilitados"));
+            DecodedJWT sessao = sessoes.verificar(token);
+            tempoSessao.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+            return sessao;
+        }
+
+        String keyId = jwt.getHeaderClaim("kid").asString();
+        logger.debug("Token decodificado, kid: {}", keyId);
+
+        Algorithm algorithm = jwksKeyProvider.getAlgorithm(keyId);
+        if (algorithm == null) {
+            throw new JWTVerificationException("Chave pública não encontrada para o token");
+        }
+
+        algorithm.verify(jwt);
+        logger.debug("Token verificado com sucesso");
+
+        verifiedTokenCache.put(token, jwt);
+        tempoVerificacao.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        return jwt;
+    }
+}
@@ -0,0 +1,236 @@
+package com.pastagem.security;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.KeyFactory;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.RSAPublicKeySpec;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.auth0.jwt.algorithms.Algorithm;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.pastagem.service.IdentityProvider;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Provedor único das chaves públicas (JWKS) do provedor de identidade.
+ *
+ * Mantém um {@link Algorithm} pronto por {@code kid}, atualizado em segundo plano.
+ * Buscas concorrentes por um {@code kid} desconhecido aguardam uma única requisição
+ * ao JWKS, e {@code kid}s que não existem no documento ficam em cache negativo.
+ * Opcionalmente o último JWKS é gravado em disco para que a aplicação possa validar
+ * tokens logo após reiniciar, sem depender da rede.
+ */
+@Component
+public class JwksKeyProvider {
+
+    private static final Logger logger = LoggerFactory.getLogger(JwksKeyProvider.class);
+
+    @Value("${security.jwks.snapshot-path:}")
+    private String snapshotPath;
+
+    @Value("${security.jwks.fetch-timeout:PT5S}")
+    private Duration tempoLimiteBusca;
+
+    @Value("${security.jwks.min-refetch-interval:PT30S}")
+    private Duration intervaloMinimoBusca;
+
+    private final IdentityProvider identityProvider;
+    private final ObjectMapper objectMapper;
+
+    private final Map<String, Algorithm> algoritmos = new ConcurrentHashMap<>();
+    private final AtomicReference<CompletableFuture<Void>> buscaEmAndamento = new AtomicReference<>();
+    private final Cache<String, Boolean> kidsDesconhecidos;
+    private volatile Long ultimaBusca;
+
+    public JwksKeyProvider(IdentityProvider identityProvider, ObjectMapper objectMapper,
+                           @Value("${security.jwks.negative-cache-ttl:PT5M}") Duration ttlKidDesconhecido) {
+        this.identityProvider = identityProvider;
+        this.objectMapper = objectMapper;
+        this.kidsDesconhecidos = Caffeine.newBuilder()
+                .maximumSize(1000)
+                .expireAfterWrite(ttlKidDesconhecido)
+                .build();
+    }
+
+    @PostConstruct
+    public void init() {
+        if (snapshotPath == null || snapshotPath.isBlank()) {
+            return;
+        }
+        Path arquivo = Path.of(snapshotPath);
+        if (!Files.isReadable(arquivo)) {
+            return;
+        }
+        try {
+            JsonNode jwks = objectMapper.readTree(Files.readString(arquivo, StandardCharsets.UTF_8));
+            algoritmos.putAll(converterChaves(jwks));
+            logger.info("JWKS carregado do snapshot {} ({} chaves)", arquivo, algoritmos.size());
+        } catch (Exception e) {
+            logger.warn("Não foi possível carregar o snapshot do JWKS {}: {}", arquivo, e.getMessage());
+        }
+    }
+
+    /**
+     * Retorna o algoritmo de verificação para o {@code kid}, ou {@code null} se a chave não existir.
+     */
+    public Algorithm getAlgorithm(String keyId) {
+        if (keyId == null) {
+            return null;
+        }
+
+        Algorithm algorithm = algoritmos.get(keyId);
+        if (algorithm != null) {
+            return algorithm;
+        }
+
+        if (kidsDesconhecidos.getIfPresent(keyId) != null) {
+            logger.debug("Kid {} em cache negativo", keyId);
+            return null;
+        }
+
+        // Busca recente e nenhuma em andamento: o kid não entra no cache negativo, porque
+        // a próxima busca permitida pode encontrá-lo (chave nova logo após uma rotação)
+        if (buscaEmAndamento.get() == null && !podeBuscar()) {
+            logger.warn("Kid {} desconhecido; JWKS buscado há menos de {}", keyId, intervaloMinimoBusca);
+            return null;
+        }
+
+        try {
+            // Reaproveita a busca em andamento, se houver
+            atualizar().get(tempoLimiteBusca.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            logger.error("Tempo esgotado ao buscar o JWKS do Cognito para o kid: {}", keyId);
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (Exception e) {
+            logger.error("Erro ao buscar chaves públicas do Cognito: {}", e.getMessage());
+            return null;
+        }
+
+        // Só uma busca concluída sem o kid o coloca no cache negativo
+        algorithm = algoritmos.get(keyId);
+        if (algorithm == null) {
+            logger.error("Chave pública não encontrada para kid: {}", keyId);
+            kidsDesconhecidos.put(keyId, Boolean.TRUE);
+        }
+        return algorithm;
+    }
+
+    private boolean podeBuscar() {
+        Long ultima = ultimaBusca;
+        return ultima == null || System.nanoTime() - ultima >= intervaloMinimoBusca.toNanos();
+    }
+
+    @Scheduled(initialDelayString = "${security.jwks.initial-delay:PT0S}",
+               fixedDelayString = "${security.jwks.refresh-interval:PT1H}")
+    public void atualizarPeriodicamente() {
+        try {
+            atualizar().join();
+        } catch (Exception e) {
+            logger.error("Erro na atualização periódica do JWKS: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Dispara uma busca do JWKS ou reaproveita a que já está em andamento.
+     */
+    private CompletableFuture<Void> atualizar() {
+        while (true) {
+            CompletableFuture<Void> existente = buscaEmAndamento.get();
+            if (existente != null) {
+                return existente;
+            }
+
+            CompletableFuture<Void> busca = new CompletableFuture<>();
+            if (!buscaEmAndamento.compareAndSet(null, busca)) {
+                continue;
+            }
+
+            try {
+                buscarJwks();
+                busca.complete(null);
+            } catch (Exception e) {
+                busca.completeExceptionally(e);
+            } finally {
+                ultimaBusca = System.nanoTime();
+                buscaEmAndamento.set(null);
+            }
+            return busca;
+        }
+    }
+
+    private void buscarJwks() throws Exception {
+        logger.info("Buscando JWKS do provedor de identidade");
+        JsonNode jwks = identityProvider.jwks();
+
+        Map<String, Algorithm> novas = converterChaves(jwks);
+        algoritmos.keySet().retainAll(novas.keySet());
+        algoritmos.putAll(novas);
+        kidsDesconhecidos.invalidateAll(novas.keySet());
+        logger.info("JWKS atualizado ({} chaves)", novas.size());
+
+        gravarSnapshot(jwks);
+    }
+
+    private Map<String, Algorithm> converterChaves(JsonNode jwks) throws Exception {
+        Map<String, Algorithm> resultado = new HashMap<>();
+        JsonNode keys = jwks.get("keys");
+        if (keys == null || !keys.isArray()) {
+            return resultado;
+        }
+
+        KeyFactory keyFactory = KeyFactory.getInstance("RSA");
+        for (JsonNode key : keys) {
+            if (!key.has("kid") || !key.has("n") || !key.has("e")) {
+                continue;
+            }
+            byte[] nBytes = Base64.getUrlDecoder().decode(key.get("n").asText());
+            byte[] eBytes = Base64.getUrlDecoder().decode(key.get("e").asText());
+
+            RSAPublicKeySpec spec = new RSAPublicKeySpec(new BigInteger(1, nBytes), new BigInteger(1, eBytes));
+            RSAPublicKey publicKey = (RSAPublicKey) keyFactory.generatePublic(spec);
+            resultado.put(key.get("kid").asText(), Algorithm.RSA256(publicKey, null));
+        }
+        return resultado;
+    }
+
+    private void gravarSnapshot(JsonNode jwks) {
+        if (snapshotPath == null || snapshotPath.isBlank()) {
+            return;
+        }
+        try {
+            Path arquivo = Path.of(snapshotPath).toAbsolutePath();
+            Files.createDirectories(arquivo.getParent());
+            Path temporario = Files.createTempFile(arquivo.getParent(), "jwks", ".tmp");
+            Files.writeString(temporario, objectMapper.writeValueAsString(jwks), StandardCharsets.UTF_8);
+            Files.move(temporario, arquivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.warn("Não foi possível gravar o snapshot do JWKS: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.pastagem.security;
+
+import java.time.Duration;
+import java.util.Locale;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.pastagem.util.TokenBucket;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Controle de admissão do {@code /auth/login}: um token bucket por username e
+ * outro por IP do cliente, consultados antes de qualquer chamada ao provedor
+ * de identidade.
+ *
+ * Os buckets ficam em caches limitados por tamanho e removidos após um período
+ * ocioso, de modo que a memória não cresce com usernames ou IPs aleatórios.
+ * Recusas são contadas em {@code auth.login.rejected} com a tag {@code escopo}.
+ */
+@Component
+public class LoginRateLimiter {
+
+    private final Cache<String, TokenBucket> porUsuario;
+    private final Cache<String, TokenBucket> porIp;
+
+    private final int capacidadeUsuario;
+    private final Duration reposicaoUsuario;
+    private final int capacidadeIp;
+    private final Duration reposicaoIp;
+
+    private final Counter recusasUsuario;
+    private final Counter recusasIp;
+
+    public LoginRateLimiter(MeterRegistry meterRegistry,
+                            @Value("${security.login-limit.username.capacity:5}") int capacidadeUsuario,
+                            @Value("${security.login-limit.username.refill:PT12S}") Duration reposicaoUsuario,
+                            @Value("${security.login-limit.ip.capacity:20}") int capacidadeIp,
+                            @Value("${security.login-limit.ip.refill:PT1S}") Duration reposicaoIp,
+                            @Value("${security.login-limit.idle-timeout:PT15M}") Duration tempoOcioso,
+                            @Value("${security.login-limit.max-size:100000}") long tamanhoMaximo) {
+        this.capacidadeUsuario = capacidadeUsuario;
+        this.reposicaoUsuario = reposicaoUsuario;
+        this.capacidadeIp = capacidadeIp;
+        this.reposicaoIp = reposicaoIp;
+        this.porUsuario = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .expireAfterAccess(tempoOcioso)
+                .build();
+        this.porIp = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .expireAfterAccess(tempoOcioso)
+                .build();
+        this.recusasUsuario = Counter.builder("auth.login.rejected").tag("escopo", "usuario").register(meterRegistry);
+        this.recusasIp = Counter.builder("auth.login.rejected").tag("escopo", "ip").register(meterRegistry);
+    }
+
+    /**
+     * Consome uma tentativa de login para o IP e o username informados.
+     *
+     * @return {@link Duration#ZERO} se a tentativa pode seguir, senão quanto o cliente deve esperar
+     */
+    public Duration tentar(String ip, String username) {
+        if (ip != null) {
+            Duration espera = porIp.get(ip, k -> new TokenBucket(capacidadeIp, reposicaoIp)).tentarConsumir();
+            if (!espera.isZero()) {
+                recusasIp.increment();
+                return espera;
+            }
+        }
+
+        if (username != null && !username.isBlank()) {
+            String chave = username.trim().toLowerCase(Locale.ROOT);
+            Duration espera = porUsuario.get(chave, k -> new TokenBucket(capacidadeUsuario, reposicaoUsuario))
+                    .tentarConsumir();
+            if (!espera.isZero()) {
+                recusasUsuario.increment();
+                return espera;
+            }
+        }
+        return Duration.ZERO;
+    }
+}
@@ -0,0 +1,93 @@
+package com.pastagem.security;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.pastagem.dto.IdentityTokens;
+import com.pastagem.service.IdentityProvider;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Agrupa renovações concorrentes do mesmo refresh token em uma única chamada
+ * ao provedor de identidade e guarda o resultado por alguns segundos, de modo
+ * que rajadas e retentativas de {@code /auth/refresh} sejam atendidas localmente.
+ *
+ * A chave é o SHA-256 de refresh token + username: o username entra no
+ * SECRET_HASH enviado ao Cognito, então requisições com usernames diferentes
+ * nunca compartilham resultado.
+ */
+@Component
+public class RefreshTokenCoalescer {
+
+    private final IdentityProvider identityProvider;
+    private final Map<String, CompletableFuture<IdentityTokens>> emAndamento = new ConcurrentHashMap<>();
+    private final Cache<String, IdentityTokens> recentes;
+
+    private final Counter chamadasProvedor;
+    private final Counter agrupadas;
+    private final Counter atendidasDoCache;
+
+    public RefreshTokenCoalescer(IdentityProvider identityProvider, MeterRegistry meterRegistry,
+                                 @Value("${security.refresh.reuse-window:PT5S}") Duration janelaReuso,
+                                 @Value("${security.refresh.max-size:10000}") long tamanhoMaximo) {
+        this.identityProvider = identityProvider;
+        this.recentes = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .expireAfterWrite(janelaReuso)
+                .build();
+        this.chamadasProvedor = Counter.builder("auth.refresh").tag("resultado", "provedor").register(meterRegistry);
+        this.agrupadas = Counter.builder("auth.refresh").tag("resultado", "agrupada").register(meterRegistry);
+        this.atendidasDoCache = Counter.builder("auth.refresh").tag("resultado", "cache").register(meterRegistry);
+    }
+
+    public IdentityTokens renovar(String refreshToken, String username) {
+        String chave = TokenDigest.sha256(refreshToken + "|" + username);
+
+        IdentityTokens recente = recentes.getIfPresent(chave);
+        if (recente != null) {
+            atendidasDoCache.increment();
+            return recente;
+        }
+
+        CompletableFuture<IdentityTokens> nova = new CompletableFuture<>();
+        CompletableFuture<IdentityTokens> existente = emAndamento.putIfAbsent(chave, nova);
+        if (existente != null) {
+            agrupadas.increment();
+            return aguardar(existente);
+        }
+
+        try {
+            chamadasProvedor.increment();
+            IdentityTokens tokens = identityProvider.renovar(refreshToken, username);
+            recentes.put(chave, tokens);
+            nova.complete(tokens);
+            return tokens;
+        } catch (RuntimeException e) {
+            nova.completeExceptionally(e);
+            throw e;
+        } finally {
+            emAndamento.remove(chave, nova);
+        }
+    }
+
+    private IdentityTokens aguardar(CompletableFuture<IdentityTokens> renovacao) {
+        try {
+            return renovacao.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw e;
+        }
+    }
+}
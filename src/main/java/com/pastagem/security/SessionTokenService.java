@@ -0,0 +1,107 @@
+package com.pastagem.security;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.pastagem.model.Cargo;
+
+/**
+ * Token de sessão interno (HS256), trocado por um token do Cognito já verificado.
+ *
+ * Carrega o necessário para montar o {@link UsuarioPrincipal} ({@code usuarioId},
+ * {@code cargo}, nome e e-mail), então validá-lo custa apenas um HMAC: sem RSA,
+ * sem JWKS e sem consulta ao banco. Por isso a validade é curta
+ * ({@code jwt_expires}): mudanças de cargo só valem para tokens emitidos depois.
+ *
+ * Desligado por padrão ({@code security.session-token.enabled}). Quando ligado, o
+ * segredo vem da variável de ambiente {@code JWT_SECRET}, com pelo menos 32 bytes;
+ * sem ele a aplicação não sobe.
+ */
+@Component
+@ConditionalOnProperty(name = "security.session-token.enabled", havingValue = "true")
+public class SessionTokenService {
+
+    public static final String EMISSOR = "pastagem";
+    private static final String TOKEN_USE = "session";
+
+    private final Algorithm algorithm;
+    private final JWTVerifier verifier;
+    private final Duration validade;
+
+    private static final int TAMANHO_MINIMO_SEGREDO = 32;
+
+    public SessionTokenService(@Value("${jwt_secret:}") String segredo,
+                               @Value("${jwt_expires:900}") long validadeSegundos) {
+        if (segredo == null || segredo.isBlank()) {
+            throw new IllegalStateException("security.session-token.enabled=true exige a variável de ambiente JWT_SECRET");
+        }
+        if (segredo.getBytes(StandardCharsets.UTF_8).length < TAMANHO_MINIMO_SEGREDO) {
+            throw new IllegalStateException("JWT_SECRET deve ter pelo menos " + TAMANHO_MINIMO_SEGREDO + " bytes para HS256");
+        }
+        this.algorithm = Algorithm.HMAC256(segredo);
+        this.verifier = JWT.require(algorithm)
+                .withIssuer(EMISSOR)
+                .withClaim("token_use", TOKEN_USE)
+                .build();
+        this.validade = Duration.ofSeconds(validadeSegundos);
+    }
+
+    public String emitir(UsuarioPrincipal usuario) {
+        Instant agora = Instant.now();
+        return JWT.create()
+                .withIssuer(EMISSOR)
+                .withSubject(usuario.cognitoId())
+                .withClaim("token_use", TOKEN_USE)
+                .withClaim("usuarioId", usuario.id())
+                .withClaim("cargo", usuario.cargo() != null ? usuario.cargo().name() : null)
+                .withClaim("name", usuario.nome())
+                .withClaim("email", usuario.email())
+                .withIssuedAt(Date.from(agora))
+                .withExpiresAt(Date.from(agora.plus(validade)))
+                .sign(algorithm);
+    }
+
+    public Duration getValidade() {
+        return validade;
+    }
+
+    /**
+     * Indica se o token (ainda não verificado) é um token de sessão, pelo cabeçalho {@code alg}.
+     */
+    public boolean isTokenDeSessao(DecodedJWT jwt) {
+        return "HS256".equals(jwt.getAlgorithm());
+    }
+
+    /**
+     * Verifica assinatura, emissor e expiração do token de sessão.
+     *
+     * @throws JWTVerificationException se o token for inválido ou estiver expirado
+     */
+    public DecodedJWT verificar(String token) {
+        return verifier.verify(token);
+    }
+
+    /**
+     * Monta o principal a partir das claims de um token de sessão já verificado.
+     */
+    public UsuarioPrincipal principal(DecodedJWT jwt) {
+        String cargo = jwt.getClaim("cargo").asString();
+        return new UsuarioPrincipal(
+                jwt.getClaim("usuarioId").asLong(),
+                jwt.getSubject(),
+                jwt.getClaim("name").asString(),
+                jwt.getClaim("email").asString(),
+                cargo != null ? Cargo.valueOf(cargo) : null);
+    }
+}
@@ -0,0 +1,14 @@
+package com.pastagem.security;
+
+import com.pastagem.model.Cargo;
+
+/**
+ * Usuário local autenticado, resolvido uma única vez por requisição a partir do
+ * {@code sub} do token e disponível como principal do {@code SecurityContext}.
+ */
+public record UsuarioPrincipal(Long id, String cognitoId, String nome, String email, Cargo cargo) {
+
+    public boolean isAdmin() {
+        return cargo == Cargo.ADMIN;
+    }
+}
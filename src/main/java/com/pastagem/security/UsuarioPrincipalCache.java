@@ -0,0 +1,68 @@
+package com.pastagem.security;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.pastagem.repository.UsuarioRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Cache {@code cognitoId → UsuarioPrincipal}, evitando uma consulta ao banco
+ * por requisição autenticada. As entradas são invalidadas quando o usuário é
+ * salvo ou excluído e, em todo caso, expiram após o TTL configurado.
+ */
+@Component
+public class UsuarioPrincipalCache {
+
+    private final UsuarioRepository usuarioRepository;
+    private final Cache<String, UsuarioPrincipal> cache;
+
+    public UsuarioPrincipalCache(UsuarioRepository usuarioRepository, MeterRegistry meterRegistry,
+                                 @Value("${security.principal-cache.max-size:10000}") long tamanhoMaximo,
+                                 @Value("${security.principal-cache.ttl:PT5M}") Duration ttl) {
+        this.usuarioRepository = usuarioRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "usuario.principal");
+    }
+
+    public Optional<UsuarioPrincipal> resolver(String cognitoId) {
+        if (cognitoId == null || cognitoId.isBlank()) {
+            return Optional.empty();
+        }
+        // Usuários sem cadastro local não são guardados (o loader devolve null)
+        return Optional.ofNullable(cache.get(cognitoId,
+                id -> usuarioRepository.findPrincipalByCognitoId(id).orElse(null)));
+    }
+
+    /**
+     * Remove a entrada imediatamente e, se houver transação ativa, novamente após o commit,
+     * para que uma leitura concorrente não recoloque no cache o estado anterior.
+     */
+    public void invalidar(String cognitoId) {
+        if (cognitoId == null) {
+            return;
+        }
+        cache.invalidate(cognitoId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.invalidate(cognitoId);
+                }
+            });
+        }
+    }
+}
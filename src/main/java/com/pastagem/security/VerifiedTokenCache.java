@@ -0,0 +1,84 @@
+package com.pastagem.security;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Cache de tokens JWT cuja assinatura já foi verificada.
+ *
+ * A chave é o SHA-256 do token (o token em si nunca fica em memória como chave)
+ * e cada entrada expira junto com o claim {@code exp} do token. Métricas de
+ * acerto, falha e remoção ficam disponíveis em {@code /actuator/metrics/cache.*}
+ * com a tag {@code cache=jwt.verified}.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private final Cache<String, DecodedJWT> cache;
+    private final Duration ttlMaximo;
+
+    public VerifiedTokenCache(MeterRegistry meterRegistry,
+                              @Value("${security.token-cache.max-size:10000}") long tamanhoMaximo,
+                              @Value("${security.token-cache.max-ttl:PT1H}") Duration ttlMaximo) {
+        this.ttlMaximo = ttlMaximo;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .expireAfter(new ExpiracaoPorClaim())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "jwt.verified");
+    }
+
+    public DecodedJWT get(String token) {
+        return cache.getIfPresent(TokenDigest.sha256(token));
+    }
+
+    public void put(String token, DecodedJWT jwt) {
+        if (tempoRestante(jwt).isZero()) {
+            return;
+        }
+        cache.put(TokenDigest.sha256(token), jwt);
+    }
+
+    private Duration tempoRestante(DecodedJWT jwt) {
+        Date exp = jwt.getExpiresAt();
+        if (exp == null) {
+            return ttlMaximo;
+        }
+        Duration restante = Duration.between(Instant.now(), exp.toInstant());
+        if (restante.isNegative()) {
+            return Duration.ZERO;
+        }
+        return restante.compareTo(ttlMaximo) > 0 ? ttlMaximo : restante;
+    }
+
+    private class ExpiracaoPorClaim implements Expiry<String, DecodedJWT> {
+
+        @Override
+        public long expireAfterCreate(String key, DecodedJWT jwt, long currentTime) {
+            return tempoRestante(jwt).toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, DecodedJWT jwt, long currentTime, long currentDuration) {
+            return tempoRestante(jwt).toNanos();
+        }
+
+        @Override
+        public long expireAfterRead(String key, DecodedJWT jwt, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
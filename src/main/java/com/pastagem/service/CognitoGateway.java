@@ -0,0 +1,185 @@
+package com.pastagem.service;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.pastagem.service.IdentityProviderException.Motivo;
+import com.pastagem.util.CircuitBreaker;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Acesso assíncrono às operações administrativas do provedor de identidade.
+ *
+ * As chamadas rodam em um pool próprio e limitado (bulkhead), de modo que um
+ * Cognito lento ocupa no máximo esse pool e nunca as threads do Tomcat. Cada
+ * operação tem tempo limite e falhas seguidas abrem um circuit breaker, que
+ * passa a recusar chamadas imediatamente com {@link Motivo#INDISPONIVEL}.
+ *
+ * Só {@link Motivo#INDISPONIVEL} (e o tempo esgotado) conta como falha do
+ * provedor; erros de negócio e requisições inválidas não abrem o circuito.
+ */
+@Component
+public class CognitoGateway {
+    private static final Logger logger = LoggerFactory.getLogger(CognitoGateway.class);
+
+    private final IdentityProvider identityProvider;
+    private final ThreadPoolExecutor executor;
+    private final CircuitBreaker circuitBreaker;
+    private final Duration tempoLimiteConsulta;
+    private final Duration tempoLimiteEscrita;
+    private final Counter recusas;
+
+    public CognitoGateway(IdentityProvider identityProvider, MeterRegistry meterRegistry,
+                          @Value("${cognito.gateway.threads:16}") int threads,
+                          @Value("${cognito.gateway.queue-size:64}") int tamanhoFila,
+                          @Value("${cognito.gateway.read-timeout:PT3S}") Duration tempoLimiteConsulta,
+                          @Value("${cognito.gateway.write-timeout:PT5S}") Duration tempoLimiteEscrita,
+                          @Value("${cognito.gateway.failure-threshold:5}") int limiteFalhas,
+                          @Value("${cognito.gateway.open-duration:PT30S}") Duration tempoAberto) {
+        this.identityProvider = identityProvider;
+        this.tempoLimiteConsulta = tempoLimiteConsulta;
+        this.tempoLimiteEscrita = tempoLimiteEscrita;
+        this.circuitBreaker = new CircuitBreaker(limiteFalhas, tempoAberto);
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(tamanhoFila), new ThreadsNomeadas(), new ThreadPoolExecutor.AbortPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+
+        ExecutorServiceMetrics.monitor(meterRegistry, executor, "cognito.gateway");
+        Gauge.builder("cognito.gateway.circuit", circuitBreaker, cb -> cb.getEstado().ordinal())
+                .description("0 = fechado, 1 = aberto, 2 = meio aberto")
+                .register(meterRegistry);
+        this.recusas = Counter.builder("cognito.gateway.rejected").register(meterRegistry);
+    }
+
+    public CompletableFuture<Boolean> usuarioExiste(String email) {
+        return executar("usuarioExiste", tempoLimiteConsulta, () -> identityProvider.usuarioExiste(email));
+    }
+
+    public CompletableFuture<String> cadastrar(String email, String password, String nome) {
+        return executar("cadastrar", tempoLimiteEscrita, () -> identityProvider.cadastrar(email, password, nome));
+    }
+
+    public CompletableFuture<Void> confirmarCadastro(String email) {
+        return executar("confirmarCadastro", tempoLimiteEscrita, () -> {
+            identityProvider.confirmarCadastro(email);
+            return null;
+        });
+    }
+
+    public CompletableFuture<Void> excluirUsuario(String email) {
+        return executar("excluirUsuario", tempoLimiteEscrita, () -> {
+            identityProvider.excluirUsuario(email);
+            return null;
+        });
+    }
+
+    public CompletableFuture<Void> atualizarAtributos(String username, String novoEmail, String nome) {
+        return executar("atualizarAtributos", tempoLimiteEscrita, () -> {
+            identityProvider.atualizarAtributos(username, novoEmail, nome);
+            return null;
+        });
+    }
+
+    public CompletableFuture<Void> definirSenha(String username, String novaSenha) {
+        return executar("definirSenha", tempoLimiteEscrita, () -> {
+            identityProvider.definirSenha(username, novaSenha);
+            return null;
+        });
+    }
+
+    /**
+     * Aguarda o resultado de uma operação do gateway, devolvendo a
+     * {@link IdentityProviderException} original em vez da {@link CompletionException}.
+     */
+    public static <T> T aguardar(CompletableFuture<T> operacao) {
+        try {
+            return operacao.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw new IdentityProviderException(Motivo.DESCONHECIDO, String.valueOf(e.getCause()), e.getCause());
+        }
+    }
+
+    private <T> CompletableFuture<T> executar(String operacao, Duration tempoLimite, Supplier<T> chamada) {
+        if (!circuitBreaker.permitir()) {
+            recusas.increment();
+            return CompletableFuture.failedFuture(
+                    new IdentityProviderException(Motivo.INDISPONIVEL, "Cognito indisponível (circuito aberto)"));
+        }
+
+        CompletableFuture<T> resultado;
+        try {
+            resultado = CompletableFuture.supplyAsync(chamada, executor);
+        } catch (RejectedExecutionException e) {
+            // Pool e fila cheios: não é falha do provedor, apenas excesso de carga local
+            circuitBreaker.liberar();
+            recusas.increment();
+            return CompletableFuture.failedFuture(
+                    new IdentityProviderException(Motivo.INDISPONIVEL, "Limite de chamadas simultâneas ao Cognito atingido", e));
+        }
+
+        // orTimeout libera quem espera; a chamada em si é limitada pelos timeouts do cliente HTTP
+        return resultado.orTimeout(tempoLimite.toMillis(), TimeUnit.MILLISECONDS)
+                .handle((valor, erro) -> {
+                    if (erro == null) {
+                        circuitBreaker.registrarSucesso();
+                        return valor;
+                    }
+                    Throwable causa = erro instanceof CompletionException && erro.getCause() != null ? erro.getCause() : erro;
+                    if (causa instanceof TimeoutException) {
+                        circuitBreaker.registrarFalha();
+                        logger.warn("Tempo esgotado na operação {} do Cognito ({} ms)", operacao, tempoLimite.toMillis());
+                        throw new IdentityProviderException(Motivo.INDISPONIVEL, "Tempo esgotado ao chamar o Cognito", causa);
+                    }
+                    IdentityProviderException falha = causa instanceof IdentityProviderException ipe
+                            ? ipe
+                            : new IdentityProviderException(Motivo.DESCONHECIDO, causa.getMessage(), causa);
+                    // Só indisponibilidade conta para o circuito: entrada inválida de usuários
+                    // não pode bloquear o Cognito para todos. Um erro não classificado não
+                    // conta como falha nem como resposta do provedor
+                    switch (falha.getMotivo()) {
+                        case INDISPONIVEL -> circuitBreaker.registrarFalha();
+                        case DESCONHECIDO -> circuitBreaker.liberar();
+                        default -> circuitBreaker.registrarSucesso();
+                    }
+                    throw falha;
+                });
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        executor.shutdown();
+    }
+
+    private static class ThreadsNomeadas implements ThreadFactory {
+        private final AtomicInteger contador = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "cognito-gateway-" + contador.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package com.pastagem.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.pastagem.model.CognitoOutbox;
+import com.pastagem.model.CognitoOutbox.Operacao;
+import com.pastagem.model.CognitoOutbox.Status;
+import com.pastagem.repository.CognitoOutboxRepository;
+import com.pastagem.service.IdentityProviderException.Motivo;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Outbox das alterações de usuário que precisam ser refletidas no Cognito.
+ *
+ * As operações são gravadas na mesma transação da alteração do {@code Usuario}
+ * e enviadas depois, em lotes, por um worker agendado. A reserva do lote e o
+ * registro do resultado são transações curtas; as chamadas ao Cognito acontecem
+ * fora delas, de modo que nenhuma conexão do pool fica presa à rede. Falhas são
+ * repetidas com backoff exponencial até {@code cognito.outbox.max-attempts}.
+ */
+@Service
+public class CognitoOutboxService {
+    private static final Logger logger = LoggerFactory.getLogger(CognitoOutboxService.class);
+
+    private final CognitoOutboxRepository outboxRepository;
+    private final CognitoGateway cognitoGateway;
+    private final CognitoService cognitoService;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Counter enviados;
+    private final Counter falhas;
+    private final Counter descartados;
+
+    @Value("${cognito.outbox.batch-size:50}")
+    private int tamanhoLote;
+
+    @Value("${cognito.outbox.max-attempts:10}")
+    private int maximoTentativas;
+
+    @Value("${cognito.outbox.initial-backoff:PT5S}")
+    private Duration backoffInicial;
+
+    @Value("${cognito.outbox.max-backoff:PT30M}")
+    private Duration backoffMaximo;
+
+    @Value("${cognito.outbox.lease:PT2M}")
+    private Duration prazoReserva;
+
+    public CognitoOutboxService(CognitoOutboxRepository outboxRepository, CognitoGateway cognitoGateway,
+                                CognitoService cognitoService, PlatformTransactionManager transactionManager,
+                                MeterRegistry meterRegistry) {
+        this.outboxRepository = outboxRepository;
+        this.cognitoGateway = cognitoGateway;
+        this.cognitoService = cognitoService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enviados = Counter.builder("cognito.outbox").tag("resultado", "enviado").register(meterRegistry);
+        this.falhas = Counter.builder("cognito.outbox").tag("resultado", "falha").register(meterRegistry);
+        this.descartados = Counter.builder("cognito.outbox").tag("resultado", "descartado").register(meterRegistry);
+    }
+
+    // Enfileiramento (sempre dentro da transação da alteração do usuário)
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enfileirarExclusao(String email) {
+        outboxRepository.save(CognitoOutbox.builder()
+                .operacao(Operacao.EXCLUIR_USUARIO)
+                .email(email)
+                .proximaTentativa(LocalDateTime.now())
+                .build());
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enfileirarAtualizacao(String email, String novoEmail, String nome) {
+        outboxRepository.save(CognitoOutbox.builder()
+                .operacao(Operacao.ATUALIZAR_ATRIBUTOS)
+                .email(email)
+                .novoEmail(novoEmail)
+                .nome(nome)
+                .proximaTentativa(LocalDateTime.now())
+                .build());
+    }
+
+    // Worker
+
+    @Scheduled(initialDelayString = "${cognito.outbox.poll-interval:PT5S}",
+               fixedDelayString = "${cognito.outbox.poll-interval:PT5S}")
+    public void processar() {
+        try {
+            List<CognitoOutbox> lote;
+            do {
+                lote = reservarLote();
+                if (!lote.isEmpty()) {
+                    enviar(lote);
+                }
+            } while (lote.size() == tamanhoLote);
+        } catch (Exception e) {
+            logger.error("Erro ao processar o outbox do Cognito: {}", e.getMessage(), e);
+        }
+    }
+
+    private List<CognitoOutbox> reservarLote() {
+        return transactionTemplate.execute(status -> {
+            LocalDateTime agora = LocalDateTime.now();
+            List<CognitoOutbox> lote = outboxRepository.reservarLote(agora, tamanhoLote);
+            for (CognitoOutbox item : lote) {
+                item.setStatus(Status.PROCESSANDO);
+                item.setProximaTentativa(agora.plus(prazoReserva));
+            }
+            return lote;
+        });
+    }
+
+    private void enviar(List<CognitoOutbox> lote) {
+        // Dispara o lote inteiro no gateway e só depois aguarda os resultados. Os itens
+        // do lote são de contas distintas (ver reservarLote), então a ordem entre eles é livre
+        List<CompletableFuture<Void>> envios = new ArrayList<>(lote.size());
+        for (CognitoOutbox item : lote) {
+            envios.add(executar(item));
+        }
+
+        List<Long> concluidos = new ArrayList<>();
+        List<CognitoOutbox> comFalha = new ArrayList<>();
+        for (int i = 0; i < lote.size(); i++) {
+            CognitoOutbox item = lote.get(i);
+            try {
+                envios.get(i).join();
+                concluidos.add(item.getId());
+                enviados.increment();
+            } catch (CompletionException e) {
+                registrarFalha(item, e.getCause() != null ? e.getCause() : e);
+                comFalha.add(item);
+            } finally {
+                invalidarCache(item);
+            }
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!concluidos.isEmpty()) {
+                outboxRepository.deleteAllByIdInBatch(concluidos);
+            }
+            outboxRepository.saveAll(comFalha);
+        });
+    }
+
+    private CompletableFuture<Void> executar(CognitoOutbox item) {
+        switch (item.getOperacao()) {
+            case EXCLUIR_USUARIO:
+                // Usuário já ausente no Cognito: a exclusão já foi aplicada
+                return cognitoGateway.excluirUsuario(item.getEmail())
+                        .exceptionallyCompose(erro -> motivo(erro) == Motivo.USUARIO_NAO_ENCONTRADO
+                                ? CompletableFuture.completedFuture(null)
+                                : CompletableFuture.failedFuture(erro));
+            case ATUALIZAR_ATRIBUTOS:
+                // Se o e-mail antigo não existe mais mas o novo sim, a tentativa anterior foi aplicada
+                return cognitoGateway.atualizarAtributos(item.getEmail(), item.getNovoEmail(), item.getNome())
+                        .exceptionallyCompose(erro -> motivo(erro) != Motivo.USUARIO_NAO_ENCONTRADO
+                                ? CompletableFuture.failedFuture(erro)
+                                : cognitoGateway.usuarioExiste(item.getNovoEmail()).thenCompose(existe -> existe
+                                        ? CompletableFuture.<Void>completedFuture(null)
+                                        : CompletableFuture.<Void>failedFuture(erro)));
+            default:
+                return CompletableFuture.failedFuture(
+                        new IllegalStateException("Operação desconhecida: " + item.getOperacao()));
+        }
+    }
+
+    private void registrarFalha(CognitoOutbox item, Throwable erro) {
+        int tentativas = item.getTentativas() + 1;
+        item.setTentativas(tentativas);
+        item.setUltimoErro(truncar(erro.getMessage()));
+
+        if (tentativas >= maximoTentativas || !repetivel(erro)) {
+            item.setStatus(Status.FALHOU);
+            descartados.increment();
+            // Enquanto o item existir, as operações seguintes da mesma conta ficam retidas
+            logger.error("Operação {} do outbox {} abandonada após {} tentativa(s); operações seguintes de {} retidas: {}",
+                    item.getOperacao(), item.getId(), tentativas, item.getEmail(), erro.getMessage());
+            return;
+        }
+
+        item.setStatus(Status.PENDENTE);
+        item.setProximaTentativa(LocalDateTime.now().plus(backoff(tentativas)));
+        falhas.increment();
+        logger.warn("Falha na operação {} do outbox {} (tentativa {}): {}",
+                item.getOperacao(), item.getId(), tentativas, erro.getMessage());
+    }
+
+    private Duration backoff(int tentativas) {
+        Duration espera = backoffInicial.multipliedBy(1L << Math.min(tentativas - 1, 20));
+        return espera.compareTo(backoffMaximo) > 0 ? backoffMaximo : espera;
+    }
+
+    // Erros de negócio não mudam com novas tentativas
+    private static boolean repetivel(Throwable erro) {
+        Motivo motivo = motivo(erro);
+        return motivo == null || motivo == Motivo.INDISPONIVEL || motivo == Motivo.DESCONHECIDO;
+    }
+
+    private static Motivo motivo(Throwable erro) {
+        Throwable causa = erro instanceof CompletionException && erro.getCause() != null ? erro.getCause() : erro;
+        return causa instanceof IdentityProviderException ipe ? ipe.getMotivo() : null;
+    }
+
+    private void invalidarCache(CognitoOutbox item) {
+        cognitoService.invalidarExistencia(item.getEmail());
+        if (item.getNovoEmail() != null) {
+            cognitoService.invalidarExistencia(item.getNovoEmail());
+        }
+    }
+
+    private static String truncar(String mensagem) {
+        if (mensagem == null) {
+            return null;
+        }
+        return mensagem.length() > 1000 ? mensagem.substring(0, 1000) : mensagem;
+    }
+}
@@ -1,115 +1,94 @@
 package com.pastagem.service;
 
-import com.amazonaws.services.cognitoidp.AWSCognitoIdentityProvider;
-import com.amazonaws.services.cognitoidp.AWSCognitoIdentityProviderClientBuilder;
-import com.amazonaws.services.cognitoidp.model.*;
 import com.pastagem.model.Usuario;
 import com.pastagem.repository.UsuarioRepository;
-import org.springframework.beans.factory.annotation.Value;
+import com.pastagem.service.IdentityProviderException.Motivo;
 import org.springframework.stereotype.Service;
-import com.amazonaws.regions.Regions;
-import com.amazonaws.auth.AWSStaticCredentialsProvider;
-import com.amazonaws.auth.BasicAWSCredentials;
-import java.util.ArrayList;
-import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import javax.crypto.Mac;
-import javax.crypto.spec.SecretKeySpec;
-import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.Base64;
-import jakarta.annotation.PostConstruct;
-import java.util.Map;
-import org.springframework.security.core.context.SecurityContextHolder;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.JsonNode;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import static com.pastagem.service.CognitoGateway.aguardar;
 
 @Service
 public class CognitoService {
     private static final Logger logger = LoggerFactory.getLogger(CognitoService.class);
 
-    private AWSCognitoIdentityProvider cognitoClient;
+    private final CognitoGateway cognitoGateway;
     private final UsuarioRepository usuarioRepository;
 
-    @Value("${aws.cognito.userPoolId}")
-    private String userPoolId;
-
-    @Value("${aws.cognito.clientId}")
-    private String clientId;
-
-    @Value("${aws.cognito.clientSecret}")
-    private String clientSecret;
+    // Respostas recentes de "usuário existe?", por e-mail normalizado
+    private final Cache<String, Boolean> existencia;
 
-    @Value("${aws.cognito.region:sa-east-1}")
-    private String region;
-
-    @Value("${aws.accessKey}")
-    private String accessKey;
-
-    @Value("${aws.secretKey}")
-    private String secretKey;
-
-    public CognitoService(UsuarioRepository usuarioRepository) {
+    public CognitoService(CognitoGateway cognitoGateway, UsuarioRepository usuarioRepository, MeterRegistry meterRegistry,
+                          @Value("${cognito.existence-cache.ttl:PT30S}") Duration ttlExistencia,
+                          @Value("${cognito.existence-cache.max-size:10000}") long tamanhoMaximo) {
+        this.cognitoGateway = cognitoGateway;
         this.usuarioRepository = usuarioRepository;
-    }
-
-    @PostConstruct
-    public void init() {
-        if (region == null || region.trim().isEmpty()) {
-            region = "sa-east-1"; // valor padrão
-        }
-        
-        logger.info("Inicializando cliente Cognito com região: {}", region);
-        logger.debug("Access Key: {}", accessKey);
-        
-        BasicAWSCredentials awsCredentials = new BasicAWSCredentials(accessKey, secretKey);
-        
-        this.cognitoClient = AWSCognitoIdentityProviderClientBuilder.standard()
-                .withRegion(Regions.fromName(region.trim()))
-                .withCredentials(new AWSStaticCredentialsProvider(awsCredentials))
+        this.existencia = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .expireAfterWrite(ttlExistencia)
+                .recordStats()
                 .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, existencia, "cognito.existencia");
     }
 
     public boolean userExistsInCognito(String email) {
         try {
             logger.info("Verificando se usuário existe no Cognito: {}", email);
-            logger.debug("UserPoolId: {}", userPoolId);
-            
-            if (userPoolId == null || userPoolId.trim().isEmpty()) {
-                logger.error("UserPoolId não configurado");
-                throw new RuntimeException("UserPoolId não configurado");
-            }
-
-            AdminGetUserRequest request = new AdminGetUserRequest()
-                    .withUserPoolId(userPoolId)
-                    .withUsername(email);
-            
-            try {
-                cognitoClient.adminGetUser(request);
-                logger.info("Usuário encontrado no Cognito: {}", email);
-                return true;
-            } catch (UserNotFoundException e) {
-                logger.info("Usuário não encontrado no Cognito: {}", email);
-                return false;
-            } catch (Exception e) {
-                logger.error("Erro ao verificar usuário no Cognito: {}", e.getMessage(), e);
-                throw new RuntimeException("Erro ao verificar usuário no Cognito: " + e.getMessage(), e);
-            }
+            boolean existe = aguardar(userExistsInCognitoAsync(email));
+            logger.info(existe ? "Usuário encontrado no Cognito: {}" : "Usuário não encontrado no Cognito: {}", email);
+            return existe;
         } catch (Exception e) {
             logger.error("Erro ao verificar usuário no Cognito: {}", e.getMessage(), e);
             throw new RuntimeException("Erro ao verificar usuário no Cognito: " + e.getMessage(), e);
         }
     }
 
+    /**
+     * Verifica a existência do usuário sem bloquear, respondendo do cache quando possível.
+     */
+    public CompletableFuture<Boolean> userExistsInCognitoAsync(String email) {
+        String chave = chaveExistencia(email);
+        Boolean emCache = existencia.getIfPresent(chave);
+        if (emCache != null) {
+            return CompletableFuture.completedFuture(emCache);
+        }
+        return cognitoGateway.usuarioExiste(email).thenApply(existe -> {
+            existencia.put(chave, existe);
+            return existe;
+        });
+    }
+
+    public void invalidarExistencia(String email) {
+        existencia.invalidate(chaveExistencia(email));
+    }
+
+    private static String chaveExistencia(String email) {
+        return email == null ? "" : email.trim().toLowerCase(Locale.ROOT);
+    }
+
     public void deleteUserFromCognito(String email) {
         try {
             logger.info("Removendo usuário do Cognito: {}", email);
-            AdminDeleteUserRequest request = new AdminDeleteUserRequest()
-                    .withUserPoolId(userPoolId)
-                    .withUsername(email);
-            cognitoClient.adminDeleteUser(request);
+            try {
+                aguardar(cognitoGateway.excluirUsuario(email));
+            } finally {
+                existencia.invalidate(chaveExistencia(email));
+            }
             logger.info("Usuário removido com sucesso do Cognito");
         } catch (Exception e) {
             logger.error("Erro ao remover usuário do Cognito: {}", e.getMessage());
@@ -120,48 +99,33 @@ public class CognitoService {
     public String registerUserInCognito(String email, String password, String nome) {
         try {
             logger.info("Iniciando registro de usuário no Cognito: {}", email);
-            
-            // Verificar se o usuário já existe
-            if (userExistsInCognito(email)) {
-                logger.error("Usuário já existe no Cognito: {}", email);
-                throw new UsernameExistsException("Usuário já existe no Cognito");
-            }
-            
-            // Criar atributos do usuário
-            List<AttributeType> userAttributes = new ArrayList<>();
-            userAttributes.add(new AttributeType().withName("email").withValue(email));
-            userAttributes.add(new AttributeType().withName("name").withValue(nome));
-
-            // Criar solicitação de registro
-            SignUpRequest signUpRequest = new SignUpRequest()
-                    .withClientId(clientId)
-                    .withUsername(email)
-                    .withPassword(password)
-                    .withUserAttributes(userAttributes);
 
-            // Adicionar secret hash se necessário
-            if (clientSecret != null && !clientSecret.isEmpty()) {
-                String secretHash = calculateSecretHash(email);
-                signUpRequest.setSecretHash(secretHash);
-                logger.debug("SecretHash calculado: {}", secretHash);
+            // A duplicidade é verificada uma única vez pelo chamador; se o e-mail já
+            // existir, o próprio cadastro falha com USUARIO_EXISTENTE
+            String userSub;
+            try {
+                userSub = aguardar(cognitoGateway.cadastrar(email, password, nome));
+            } finally {
+                existencia.invalidate(chaveExistencia(email));
             }
-
-            logger.info("Enviando requisição de registro para o Cognito");
-            // Registrar usuário no Cognito
-            SignUpResult signUpResult = cognitoClient.signUp(signUpRequest);
-            logger.info("Usuário registrado com sucesso no Cognito. UserSub: {}", signUpResult.getUserSub());
+            logger.info("Usuário registrado com sucesso no Cognito. UserSub: {}", userSub);
 
             // Confirmar o usuário automaticamente
             confirmUser(email);
 
             // Retornar o ID do usuário (sub)
-            return signUpResult.getUserSub();
-        } catch (UsernameExistsException e) {
-            logger.error("Usuário já existe no Cognito: {}", email);
-            throw new RuntimeException("Usuário já existe no Cognito", e);
-        } catch (InvalidPasswordException e) {
-            logger.error("Senha inválida para o usuário: {}", email);
-            throw new RuntimeException("A senha não atende aos requisitos de segurança", e);
+            return userSub;
+        } catch (IdentityProviderException e) {
+            if (e.getMotivo() == Motivo.USUARIO_EXISTENTE) {
+                logger.error("Usuário já existe no Cognito: {}", email);
+                throw new RuntimeException("Usuário já existe no Cognito", e);
+            }
+            if (e.getMotivo() == Motivo.SENHA_INVALIDA) {
+                logger.error("Senha inválida para o usuário: {}", email);
+                throw new RuntimeException("A senha não atende aos requisitos de segurança", e);
+            }
+            logger.error("Erro ao registrar usuário no Cognito: {}", e.getMessage(), e);
+            throw new RuntimeException("Erro ao registrar usuário no Cognito: " + e.getMessage(), e);
         } catch (Exception e) {
             logger.error("Erro ao registrar usuário no Cognito: {}", e.getMessage(), e);
             throw new RuntimeException("Erro ao registrar usuário no Cognito: " + e.getMessage(), e);
@@ -171,12 +135,7 @@ public class CognitoService {
     public void confirmUser(String email) {
         try {
             logger.info("Confirmando usuário no Cognito: {}", email);
-            
-            AdminConfirmSignUpRequest request = new AdminConfirmSignUpRequest()
-                    .withUserPoolId(userPoolId)
-                    .withUsername(email);
-
-            cognitoClient.adminConfirmSignUp(request);
+            aguardar(cognitoGateway.confirmarCadastro(email));
             logger.info("Usuário confirmado com sucesso no Cognito: {}", email);
         } catch (Exception e) {
             logger.error("Erro ao confirmar usuário no Cognito: {}", e.getMessage());
@@ -184,23 +143,6 @@ public class CognitoService {
         }
     }
 
-    private String calculateSecretHash(String username) {
-        try {
-            String message = username + clientId;
-            SecretKeySpec signingKey = new SecretKeySpec(
-                clientSecret.getBytes(StandardCharsets.UTF_8),
-                "HmacSHA256"
-            );
-            Mac mac = Mac.getInstance("HmacSHA256");
-            mac.init(signingKey);
-            byte[] rawHmac = mac.doFinal(message.getBytes(StandardCharsets.UTF_8));
-            return Base64.getEncoder().encodeToString(rawHmac);
-        } catch (Exception e) {
-            logger.error("Erro ao calcular secret hash: {}", e.getMessage());
-            throw new RuntimeException("Erro ao calcular secret hash", e);
-        }
-    }
-
     public Usuario getOrCreateUserFromCognito(String cognitoId, String email, String nome) {
         return usuarioRepository.findByCognitoId(cognitoId)
                 .orElseGet(() -> {
@@ -222,19 +164,11 @@ public class CognitoService {
                 throw new RuntimeException("Novo email já existe no Cognito");
             }
 
-            // Criar lista de atributos para atualização
-            List<AttributeType> userAttributes = new ArrayList<>();
-            userAttributes.add(new AttributeType().withName("email").withValue(newEmail));
-            userAttributes.add(new AttributeType().withName("name").withValue(nome));
-
-            // Criar requisição de atualização
-            AdminUpdateUserAttributesRequest request = new AdminUpdateUserAttributesRequest()
-                    .withUserPoolId(userPoolId)
-                    .withUsername(oldEmail)
-                    .withUserAttributes(userAttributes);
-
-            // Executar atualização
-            cognitoClient.adminUpdateUserAttributes(request);
+            try {
+                aguardar(cognitoGateway.atualizarAtributos(oldEmail, newEmail, nome));
+            } finally {
+                existencia.invalidateAll(List.of(chaveExistencia(oldEmail), chaveExistencia(newEmail)));
+            }
             logger.info("Email atualizado com sucesso no Cognito");
         } catch (Exception e) {
             logger.error("Erro ao atualizar email no Cognito: {}", e.getMessage());
@@ -252,16 +186,8 @@ public class CognitoService {
             
             // Obter o sub (ID do usuário) do token
             String sub = extractSubFromToken(idToken);
-            
-            // Criar requisição de alteração de senha
-            AdminSetUserPasswordRequest request = new AdminSetUserPasswordRequest()
-                .withUserPoolId(userPoolId)
-                .withUsername(sub)
-                .withPassword(novaSenha)
-                .withPermanent(true);
 
-            // Executar alteração de senha
-            cognitoClient.adminSetUserPassword(request);
+            aguardar(cognitoGateway.definirSenha(sub, novaSenha));
             logger.info("Senha alterada com sucesso no Cognito");
         } catch (Exception e) {
             logger.error("Erro ao alterar senha no Cognito: {}", e.getMessage());
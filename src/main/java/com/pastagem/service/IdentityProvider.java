@@ -0,0 +1,27 @@
+package com.pastagem.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.pastagem.dto.IdentityTokens;
+
+/**
+ * Provedor de identidade usado pela autenticação e pelo cadastro de usuários.
+ *
+ * A implementação padrão fala com o AWS Cognito; com {@code identity.provider=local}
+ * é usado um provedor em memória, útil para testes de carga sem depender da AWS.
+ * Falhas são sinalizadas com {@link IdentityProviderException}.
+ */
+public interface IdentityProvider {
+
+    // Autenticação
+    IdentityTokens autenticar(String username, String password);
+    IdentityTokens renovar(String refreshToken, String username);
+    JsonNode jwks();
+
+    // Administração de usuários
+    boolean usuarioExiste(String email);
+    String cadastrar(String email, String password, String nome);
+    void confirmarCadastro(String email);
+    void excluirUsuario(String email);
+    void atualizarAtributos(String username, String novoEmail, String nome);
+    void definirSenha(String username, String novaSenha);
+}
@@ -0,0 +1,35 @@
+package com.pastagem.service;
+
+/**
+ * Erro devolvido por um {@link IdentityProvider}, independente do provedor concreto.
+ */
+public class IdentityProviderException extends RuntimeException {
+
+    public enum Motivo {
+        USUARIO_EXISTENTE,
+        USUARIO_NAO_ENCONTRADO,
+        SENHA_INVALIDA,
+        CREDENCIAIS_INVALIDAS,
+        // Recusada pelo provedor por causa da requisição (parâmetro, código, limite do usuário)
+        REQUISICAO_INVALIDA,
+        // Provedor fora do ar, sobrecarregado ou inacessível; só este motivo abre o circuito
+        INDISPONIVEL,
+        DESCONHECIDO
+    }
+
+    private final Motivo motivo;
+
+    public IdentityProviderException(Motivo motivo, String message) {
+        super(message);
+        this.motivo = motivo;
+    }
+
+    public IdentityProviderException(Motivo motivo, String message, Throwable cause) {
+        super(message, cause);
+        this.motivo = motivo;
+    }
+
+    public Motivo getMotivo() {
+        return motivo;
+    }
+}
@@ -0,0 +1,579 @@
+package com.pastagem.service;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import javax.sql.DataSource;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.pastagem.dto.AreaPropriedade;
+import com.pastagem.dto.ImportacaoPastagemResumo;
+import com.pastagem.dto.PastagemCreateDTO;
+import com.pastagem.util.LeitorCsv;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Importação de pastagens por CSV (migração de planilhas legadas).
+ *
+ * A thread da requisição lê o arquivo linha a linha, valida cada linha com as
+ * regras de {@link PastagemService#validarCampos} e entrega blocos a uma fila
+ * limitada. Uma thread de gravação consome a fila: verifica as propriedades do
+ * bloco e a área livre de cada uma em uma consulta, reserva IDs do
+ * {@code pastagem_seq} em blocos de 50 e grava com {@code COPY ... FROM STDIN},
+ * com commit por bloco. Quando a gravação
+ * fica para trás a fila enche e a leitura do upload para, então o uso de memória
+ * depende só do tamanho do bloco e da fila, não do arquivo. Linhas rejeitadas vão
+ * para um relatório em arquivo temporário.
+ */
+@Service
+public class ImportacaoPastagemService {
+    private static final Logger logger = LoggerFactory.getLogger(ImportacaoPastagemService.class);
+
+    private static final String COPIAR_PASTAGENS = """
+        COPY pastagem (id, nome, area_hectares, tipo_pasto, capacidade_suporte, id_propriedade, created_at, updated_at)
+        FROM STDIN WITH (FORMAT csv)
+        """;
+
+    // Resumo das propriedades do bloco, criado se faltar e bloqueado até o commit do bloco,
+    // na ordem de id usada pelo trigger e por PropriedadeService.bloquearAreas
+    private static final String CRIAR_RESUMOS = """
+        INSERT INTO propriedade_resumo (id_propriedade)
+        SELECT p.id FROM propriedade p WHERE p.id = ANY (?) ORDER BY p.id
+        ON CONFLICT (id_propriedade) DO NOTHING
+        """;
+
+    private static final String BLOQUEAR_AREAS = """
+        SELECT p.id, p.area_total, r.area_pastagens
+        FROM propriedade_resumo r JOIN propriedade p ON p.id = r.id_propriedade
+        WHERE r.id_propriedade = ANY (?) AND (CAST(? AS bigint) IS NULL OR p.id_usuario = ?)
+        ORDER BY r.id_propriedade
+        FOR UPDATE OF r
+        """;
+
+    private static final String RESERVAR_IDS = "SELECT nextval('pastagem_seq') FROM generate_series(1, ?)";
+
+    // INCREMENT BY do pastagem_seq (V4): cada nextval reserva esta quantidade de IDs
+    private static final int IDS_POR_RESERVA = 50;
+
+    private static final int MAXIMO_REJEICOES_RESUMO = 20;
+
+    // Marca o fim da leitura na fila (comparado por referência)
+    private static final List<LinhaPastagem> FIM = new ArrayList<>(0);
+
+    private final DataSource dataSource;
+    private final PastagemService pastagemService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final ThreadPoolExecutor executor;
+    private final Semaphore vagas;
+    private final Map<String, Progresso> emAndamento = new ConcurrentHashMap<>();
+    private final Cache<String, Progresso> concluidas;
+
+    @Value("${importacao.pastagem.chunk-size:2000}")
+    private int tamanhoBloco;
+
+    @Value("${importacao.pastagem.queue-capacity:4}")
+    private int capacidadeFila;
+
+    @Value("${importacao.pastagem.progress-log-interval:50000}")
+    private long intervaloLogProgresso;
+
+    public ImportacaoPastagemService(DataSource dataSource,
+                                     PastagemService pastagemService,
+                                     ApplicationEventPublisher eventPublisher,
+                                     @Value("${importacao.pastagem.max-concurrent:2}") int maximoSimultaneas,
+                                     @Value("${importacao.pastagem.report-retention:PT1H}") Duration retencaoRelatorio) {
+        this.dataSource = dataSource;
+        this.pastagemService = pastagemService;
+        this.eventPublisher = eventPublisher;
+        this.vagas = new Semaphore(maximoSimultaneas);
+        // Uma thread de gravação por importação; as vagas limitam quantas existem
+        this.executor = new ThreadPoolExecutor(maximoSimultaneas, maximoSimultaneas, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(maximoSimultaneas),
+                r -> {
+                    Thread thread = new Thread(r, "importacao-pastagens");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.concluidas = Caffeine.newBuilder()
+                .expireAfterWrite(retencaoRelatorio)
+                .removalListener((String id, Progresso progresso, RemovalCause causa) -> {
+                    if (progresso != null) {
+                        progresso.excluirRelatorio();
+                    }
+                })
+                .build();
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Importa o CSV lido de {@code entrada} e retorna o resumo ao final.
+     *
+     * @param usuarioId dono obrigatório das propriedades referenciadas, ou {@code null} para administradores
+     */
+    public ImportacaoPastagemResumo importar(InputStream entrada, Long usuarioId, Long responsavelId) throws IOException {
+        if (!vagas.tryAcquire()) {
+            throw new IllegalStateException("Limite de importações simultâneas atingido; tente novamente mais tarde");
+        }
+
+        Progresso progresso;
+        try {
+            progresso = new Progresso(UUID.randomUUID().toString(), responsavelId);
+        } catch (IOException | RuntimeException e) {
+            vagas.release();
+            throw e;
+        }
+        emAndamento.put(progresso.id, progresso);
+
+        BlockingQueue<List<LinhaPastagem>> fila = new ArrayBlockingQueue<>(capacidadeFila);
+        Future<?> gravacao = executor.submit(() -> {
+            gravar(fila, progresso, usuarioId);
+            return null;
+        });
+
+        try {
+            ler(entrada, fila, gravacao, progresso);
+            enviar(fila, FIM, gravacao);
+            aguardar(gravacao);
+            progresso.finalizar(ImportacaoPastagemResumo.Status.CONCLUIDA, null);
+            logger.info("Importação de pastagens {} concluída: {} lidas, {} gravadas, {} rejeitadas",
+                    progresso.id, progresso.lidas.get(), progresso.gravadas.get(), progresso.rejeitadas.get());
+        } catch (IOException | RuntimeException e) {
+            gravacao.cancel(true);
+            progresso.finalizar(ImportacaoPastagemResumo.Status.FALHOU, e.getMessage());
+            logger.warn("Importação de pastagens {} interrompida na linha {}: {}",
+                    progresso.id, progresso.lidas.get(), e.getMessage());
+            throw e;
+        } finally {
+            emAndamento.remove(progresso.id);
+            concluidas.put(progresso.id, progresso);
+            vagas.release();
+        }
+        return progresso.resumo();
+    }
+
+    public Optional<ImportacaoPastagemResumo> buscarResumo(String id, Long responsavelId, boolean admin) {
+        return buscar(id, responsavelId, admin).map(Progresso::resumo);
+    }
+
+    /**
+     * Importações em andamento e concluídas recentemente, mais novas primeiro.
+     */
+    public List<ImportacaoPastagemResumo> listar(Long responsavelId, boolean admin) {
+        return Stream.concat(emAndamento.values().stream(), concluidas.asMap().values().stream())
+                .filter(p -> admin || p.responsavelId.equals(responsavelId))
+                .sorted(Comparator.comparing((Progresso p) -> p.inicio).reversed())
+                .map(Progresso::resumo)
+                .toList();
+    }
+
+    /**
+     * Relatório de linhas rejeitadas ({@code linha;motivo}) de uma importação já encerrada.
+     */
+    public Optional<Path> buscarRelatorio(String id, Long responsavelId, boolean admin) {
+        return Optional.ofNullable(concluidas.getIfPresent(id))
+                .filter(p -> admin || p.responsavelId.equals(responsavelId))
+                .map(p -> p.relatorio)
+                .filter(Files::isReadable);
+    }
+
+    private Optional<Progresso> buscar(String id, Long responsavelId, boolean admin) {
+        Progresso progresso = emAndamento.get(id);
+        if (progresso == null) {
+            progresso = concluidas.getIfPresent(id);
+        }
+        return Optional.ofNullable(progresso).filter(p -> admin || p.responsavelId.equals(responsavelId));
+    }
+
+    // Leitura (thread da requisição)
+
+    private void ler(InputStream entrada, BlockingQueue<List<LinhaPastagem>> fila, Future<?> gravacao,
+                     Progresso progresso) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(entrada, StandardCharsets.UTF_8));
+        String cabecalho = reader.readLine();
+        if (cabecalho == null || cabecalho.isBlank()) {
+            throw new IllegalArgumentException("Arquivo vazio");
+        }
+        cabecalho = cabecalho.replace(LeitorCsv.BOM, "");
+        // Planilhas em português costumam exportar com ';' e vírgula decimal
+        String separador = cabecalho.indexOf(';') >= 0 ? ";" : ",";
+        Colunas colunas = Colunas.de(LeitorCsv.separar(cabecalho, separador));
+
+        List<LinhaPastagem> bloco = new ArrayList<>(tamanhoBloco);
+        int numero = 1;
+        String linha;
+        while ((linha = reader.readLine()) != null) {
+            numero++;
+            if (linha.isBlank()) {
+                continue;
+            }
+            long lidas = progresso.lidas.incrementAndGet();
+            if (lidas % intervaloLogProgresso == 0) {
+                logger.info("Importação de pastagens {}: {} lidas, {} gravadas, {} rejeitadas",
+                        progresso.id, lidas, progresso.gravadas.get(), progresso.rejeitadas.get());
+            }
+
+            LinhaPastagem valida = validar(numero, LeitorCsv.separar(linha, separador), colunas, progresso);
+            if (valida == null) {
+                continue;
+            }
+            bloco.add(valida);
+            if (bloco.size() >= tamanhoBloco) {
+                enviar(fila, bloco, gravacao);
+                bloco = new ArrayList<>(tamanhoBloco);
+            }
+        }
+        if (!bloco.isEmpty()) {
+            enviar(fila, bloco, gravacao);
+        }
+    }
+
+    private LinhaPastagem validar(int numero, List<String> valores, Colunas colunas, Progresso progresso) {
+        PastagemCreateDTO dto = new PastagemCreateDTO();
+        try {
+            dto.setNome(texto(valores, colunas.nome));
+            dto.setAreaHectares(decimal(texto(valores, colunas.area)));
+            dto.setTipoPasto(texto(valores, colunas.tipoPasto));
+            String capacidade = texto(valores, colunas.capacidade);
+            dto.setCapacidadeSuporte(capacidade == null ? null : Integer.valueOf(capacidade));
+            String propriedade = texto(valores, colunas.propriedade);
+            dto.setPropriedadeId(propriedade == null ? null : Long.valueOf(propriedade));
+        } catch (NumberFormatException e) {
+            progresso.rejeitar(numero, "Valor numérico inválido");
+            return null;
+        }
+
+        List<String> erros = pastagemService.validarCampos(dto);
+        if (!erros.isEmpty()) {
+            progresso.rejeitar(numero, String.join(", ", erros));
+            return null;
+        }
+        return new LinhaPastagem(numero, dto.getNome(), dto.getAreaHectares(), dto.getTipoPasto(),
+                dto.getCapacidadeSuporte(), dto.getPropriedadeId());
+    }
+
+    private static String texto(List<String> valores, int indice) {
+        if (indice >= valores.size()) {
+            return null;
+        }
+        String valor = valores.get(indice).trim();
+        return valor.isEmpty() ? null : valor;
+    }
+
+    private static BigDecimal decimal(String valor) {
+        if (valor == null) {
+            return null;
+        }
+        // "12,5" (vírgula decimal) e "12.5" são aceitos
+        return new BigDecimal(valor.indexOf('.') < 0 ? valor.replace(',', '.') : valor);
+    }
+
+    /**
+     * Coloca o bloco na fila, esperando enquanto ela estiver cheia (contrapressão
+     * sobre o upload); falha se a gravação tiver terminado antes do fim da leitura.
+     */
+    private void enviar(BlockingQueue<List<LinhaPastagem>> fila, List<LinhaPastagem> bloco, Future<?> gravacao) {
+        try {
+            while (!fila.offer(bloco, 1, TimeUnit.SECONDS)) {
+                if (gravacao.isDone()) {
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Importação interrompida");
+        }
+        if (gravacao.isDone() && bloco != FIM) {
+            aguardar(gravacao);
+            throw new IllegalStateException("Gravação encerrada antes do fim do arquivo");
+        }
+    }
+
+    private static void aguardar(Future<?> gravacao) {
+        try {
+            gravacao.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Importação interrompida");
+        } catch (ExecutionException e) {
+            Throwable causa = e.getCause();
+            if (causa instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("Erro ao gravar pastagens: " + causa.getMessage(), causa);
+        }
+    }
+
+    // Gravação (thread da importação)
+
+    private void gravar(BlockingQueue<List<LinhaPastagem>> fila, Progresso progresso, Long usuarioId)
+            throws SQLException, IOException {
+        try (Connection conexao = dataSource.getConnection()) {
+            conexao.setAutoCommit(false);
+            CopyManager copyManager = conexao.unwrap(PGConnection.class).getCopyAPI();
+            while (true) {
+                List<LinhaPastagem> bloco = fila.take();
+                if (bloco == FIM) {
+                    return;
+                }
+                gravarBloco(conexao, copyManager, bloco, progresso, usuarioId);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void gravarBloco(Connection conexao, CopyManager copyManager, List<LinhaPastagem> bloco,
+                             Progresso progresso, Long usuarioId) throws SQLException, IOException {
+        Set<Long> referenciadas = new HashSet<>();
+        bloco.forEach(linha -> referenciadas.add(linha.propriedadeId()));
+
+        CopyIn copia = null;
+        try {
+            // Lida na transação do bloco, com o resumo bloqueado: outra gravação nas mesmas
+            // propriedades espera o commit e então enxerga a área já ocupada por este bloco
+            Map<Long, AreaPropriedade> areas = bloquearAreas(conexao, referenciadas, usuarioId);
+
+            // Área ainda livre em cada propriedade, descontada linha a linha dentro do bloco
+            Map<Long, BigDecimal> disponivel = new HashMap<>();
+            areas.forEach((id, area) -> disponivel.put(id, area.disponivel()));
+
+            List<LinhaPastagem> validas = new ArrayList<>(bloco.size());
+            for (LinhaPastagem linha : bloco) {
+                BigDecimal livre = disponivel.get(linha.propriedadeId());
+                if (livre == null) {
+                    progresso.rejeitar(linha.numero(), "Propriedade " + linha.propriedadeId() + " não encontrada");
+                } else if (linha.areaHectares().compareTo(livre) > 0) {
+                    progresso.rejeitar(linha.numero(), "Área excede a área disponível da propriedade "
+                            + linha.propriedadeId() + " (" + livre.max(BigDecimal.ZERO) + " ha)");
+                } else {
+                    disponivel.put(linha.propriedadeId(), livre.subtract(linha.areaHectares()));
+                    validas.add(linha);
+                }
+            }
+            if (validas.isEmpty()) {
+                conexao.rollback();
+                return;
+            }
+
+            List<Long> reservas = reservarIds(conexao, validas.size());
+            String agora = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS).toString();
+
+            copia = copyManager.copyIn(COPIAR_PASTAGENS);
+            StringBuilder registro = new StringBuilder(128);
+            for (int i = 0; i < validas.size(); i++) {
+                LinhaPastagem linha = validas.get(i);
+                long id = reservas.get(i / IDS_POR_RESERVA) + (i % IDS_POR_RESERVA);
+                registro.setLength(0);
+                registro.append(id).append(',');
+                campoCsv(registro, linha.nome()).append(',');
+                registro.append(linha.areaHectares().toPlainString()).append(',');
+                campoCsv(registro, linha.tipoPasto()).append(',');
+                registro.append(linha.capacidadeSuporte()).append(',');
+                registro.append(linha.propriedadeId()).append(',');
+                registro.append(agora).append(',').append(agora).append('\n');
+                byte[] bytes = registro.toString().getBytes(StandardCharsets.UTF_8);
+                copia.writeToCopy(bytes, 0, bytes.length);
+            }
+            copia.endCopy();
+            conexao.commit();
+            progresso.gravadas.addAndGet(validas.size());
+            // Sem transação do Spring aqui: o cache de relatórios é invalidado na hora
+            eventPublisher.publishEvent(RelatorioCache.DadosAlterados.pastagens());
+        } catch (SQLException | RuntimeException e) {
+            if (copia != null && copia.isActive()) {
+                copia.cancelCopy();
+            }
+            conexao.rollback();
+            throw e;
+        }
+    }
+
+    private static Map<Long, AreaPropriedade> bloquearAreas(Connection conexao, Set<Long> ids, Long usuarioId)
+            throws SQLException {
+        Long[] chaves = ids.toArray(new Long[0]);
+        try (PreparedStatement ps = conexao.prepareStatement(CRIAR_RESUMOS)) {
+            ps.setArray(1, conexao.createArrayOf("bigint", chaves));
+            ps.executeUpdate();
+        }
+        Map<Long, AreaPropriedade> areas = new HashMap<>();
+        try (PreparedStatement ps = conexao.prepareStatement(BLOQUEAR_AREAS)) {
+            ps.setArray(1, conexao.createArrayOf("bigint", chaves));
+            ps.setObject(2, usuarioId, Types.BIGINT);
+            ps.setObject(3, usuarioId, Types.BIGINT);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    long id = rs.getLong(1);
+                    areas.put(id, new AreaPropriedade(id, rs.getBigDecimal(2), rs.getBigDecimal(3)));
+                }
+            }
+        }
+        return areas;
+    }
+
+    private static List<Long> reservarIds(Connection conexao, int quantidade) throws SQLException {
+        int reservas = (quantidade + IDS_POR_RESERVA - 1) / IDS_POR_RESERVA;
+        List<Long> inicios = new ArrayList<>(reservas);
+        try (PreparedStatement ps = conexao.prepareStatement(RESERVAR_IDS)) {
+            ps.setInt(1, reservas);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    inicios.add(rs.getLong(1));
+                }
+            }
+        }
+        return inicios;
+    }
+
+    private static StringBuilder campoCsv(StringBuilder destino, String valor) {
+        return destino.append('"').append(valor.replace("\"", "\"\"")).append('"');
+    }
+
+    // Estruturas internas
+
+    private record LinhaPastagem(int numero, String nome, BigDecimal areaHectares, String tipoPasto,
+                                 int capacidadeSuporte, long propriedadeId) {
+    }
+
+    /**
+     * Posição de cada coluna no cabeçalho; aceita snake_case, camelCase e sinônimos curtos.
+     */
+    private record Colunas(int nome, int area, int tipoPasto, int capacidade, int propriedade) {
+
+        static Colunas de(List<String> cabecalho) {
+            Map<String, Integer> indices = new HashMap<>();
+            for (int i = 0; i < cabecalho.size(); i++) {
+                String nome = cabecalho.get(i).trim().toLowerCase(Locale.ROOT).replace("_", "").replace(" ", "");
+                indices.putIfAbsent(nome, i);
+            }
+            return new Colunas(
+                    indice(indices, "nome", "nome"),
+                    indice(indices, "area_hectares", "areahectares", "area"),
+                    indice(indices, "tipo_pasto", "tipopasto", "tipo"),
+                    indice(indices, "capacidade_suporte", "capacidadesuporte", "capacidade"),
+                    indice(indices, "propriedade_id", "propriedadeid", "idpropriedade", "propriedade"));
+        }
+
+        private static int indice(Map<String, Integer> indices, String coluna, String... nomes) {
+            for (String nome : nomes) {
+                Integer indice = indices.get(nome);
+                if (indice != null) {
+                    return indice;
+                }
+            }
+            throw new IllegalArgumentException("Coluna obrigatória ausente no cabeçalho: " + coluna);
+        }
+    }
+
+    private static final class Progresso {
+        private final String id;
+        private final Long responsavelId;
+        private final LocalDateTime inicio = LocalDateTime.now();
+        private final AtomicLong lidas = new AtomicLong();
+        private final AtomicLong gravadas = new AtomicLong();
+        private final AtomicLong rejeitadas = new AtomicLong();
+        private final List<String> primeirasRejeicoes = Collections.synchronizedList(new ArrayList<>());
+        private final Path relatorio;
+        private final BufferedWriter escritor;
+        private volatile ImportacaoPastagemResumo.Status status = ImportacaoPastagemResumo.Status.PROCESSANDO;
+        private volatile String erro;
+        private volatile LocalDateTime fim;
+
+        Progresso(String id, Long responsavelId) throws IOException {
+            this.id = id;
+            this.responsavelId = responsavelId;
+            this.relatorio = Files.createTempFile("pastagem-rejeitadas-", ".csv");
+            this.escritor = Files.newBufferedWriter(relatorio, StandardCharsets.UTF_8);
+            escritor.write("linha;motivo\n");
+        }
+
+        // Chamado pelas duas threads (validação na leitura, propriedade na gravação)
+        synchronized void rejeitar(int linha, String motivo) {
+            rejeitadas.incrementAndGet();
+            if (primeirasRejeicoes.size() < MAXIMO_REJEICOES_RESUMO) {
+                primeirasRejeicoes.add("Linha " + linha + ": " + motivo);
+            }
+            try {
+                escritor.write(linha + ";\"" + motivo.replace("\"", "\"\"") + "\"\n");
+            } catch (IOException e) {
+                logger.warn("Não foi possível registrar a linha rejeitada {} da importação {}: {}", linha, id, e.getMessage());
+            }
+        }
+
+        synchronized void finalizar(ImportacaoPastagemResumo.Status status, String erro) {
+            this.status = status;
+            this.erro = erro;
+            this.fim = LocalDateTime.now();
+            try {
+                escritor.close();
+            } catch (IOException e) {
+                logger.warn("Não foi possível fechar o relatório da importação {}: {}", id, e.getMessage());
+            }
+        }
+
+        void excluirRelatorio() {
+            try {
+                Files.deleteIfExists(relatorio);
+            } catch (IOException e) {
+                logger.warn("Não foi possível excluir o relatório da importação {}: {}", id, e.getMessage());
+            }
+        }
+
+        ImportacaoPastagemResumo resumo() {
+            return new ImportacaoPastagemResumo(id, status, lidas.get(), gravadas.get(), rejeitadas.get(),
+                    List.copyOf(primeirasRejeicoes), erro, inicio, fim);
+        }
+    }
+}
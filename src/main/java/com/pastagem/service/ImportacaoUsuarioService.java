@@ -0,0 +1,545 @@
+package com.pastagem.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pastagem.dto.ImportacaoItemDTO;
+import com.pastagem.dto.ImportacaoResumo;
+import com.pastagem.dto.UsuarioRegisterDTO;
+import com.pastagem.model.Cargo;
+import com.pastagem.model.ImportacaoUsuarioItem;
+import com.pastagem.model.ImportacaoUsuarios;
+import com.pastagem.model.Usuario;
+import com.pastagem.repository.ImportacaoUsuarioItemRepository;
+import com.pastagem.repository.ImportacaoUsuariosRepository;
+import com.pastagem.repository.UsuarioRepository;
+import com.pastagem.service.IdentityProviderException.Motivo;
+import com.pastagem.util.LeitorCsv;
+import com.pastagem.util.TokenBucket;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Importação em lote de usuários (ex.: produtores de uma cooperativa).
+ *
+ * As linhas são processadas em blocos: unicidade de CPF/e-mail verificada com
+ * uma consulta por bloco, usuários criados no Cognito em paralelo dentro de um
+ * orçamento de requisições por segundo, e linhas de {@code usuario} inseridas
+ * em batch JDBC. O resultado de cada linha é gravado em
+ * {@link ImportacaoUsuarioItem} assim que conhecido, de forma que uma importação
+ * interrompida pode ser retomada reenviando o mesmo arquivo: linhas já criadas
+ * são ignoradas e as já provisionadas no Cognito só são inseridas no banco.
+ */
+@Service
+public class ImportacaoUsuarioService {
+    private static final Logger logger = LoggerFactory.getLogger(ImportacaoUsuarioService.class);
+
+    private static final String INSERIR_USUARIO = """
+        INSERT INTO usuario (nome, cpf, telefone, email, cargo, cognito_id, created_at, updated_at)
+        VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+        """;
+
+    private static final String GRAVAR_ITEM = """
+        INSERT INTO importacao_usuario_item (id_importacao, linha, email, status, mensagem, cognito_id, created_at, updated_at)
+        VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+        ON CONFLICT (id_importacao, linha) DO UPDATE
+        SET email = EXCLUDED.email, status = EXCLUDED.status, mensagem = EXCLUDED.mensagem,
+            cognito_id = EXCLUDED.cognito_id, updated_at = EXCLUDED.updated_at
+        """;
+
+    private final ImportacaoUsuariosRepository importacaoRepository;
+    private final ImportacaoUsuarioItemRepository itemRepository;
+    private final UsuarioRepository usuarioRepository;
+    private final UsuarioService usuarioService;
+    private final CognitoGateway cognitoGateway;
+    private final CognitoService cognitoService;
+    private final CognitoOutboxService cognitoOutboxService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+
+    private final ThreadPoolExecutor executor;
+    private final Set<Long> emExecucao = ConcurrentHashMap.newKeySet();
+
+    @Value("${importacao.chunk-size:200}")
+    private int tamanhoBloco;
+
+    @Value("${importacao.max-linhas:20000}")
+    private int maximoLinhas;
+
+    @Value("${importacao.cognito.requests-per-second:10}")
+    private int requisicoesPorSegundo;
+
+    @Value("${importacao.cognito.concurrency:4}")
+    private int concorrencia;
+
+    public ImportacaoUsuarioService(ImportacaoUsuariosRepository importacaoRepository,
+                                    ImportacaoUsuarioItemRepository itemRepository,
+                                    UsuarioRepository usuarioRepository,
+                                    UsuarioService usuarioService,
+                                    CognitoGateway cognitoGateway,
+                                    CognitoService cognitoService,
+                                    CognitoOutboxService cognitoOutboxService,
+                                    JdbcTemplate jdbcTemplate,
+                                    PlatformTransactionManager transactionManager,
+                                    ObjectMapper objectMapper) {
+        this.importacaoRepository = importacaoRepository;
+        this.itemRepository = itemRepository;
+        this.usuarioRepository = usuarioRepository;
+        this.usuarioService = usuarioService;
+        this.cognitoGateway = cognitoGateway;
+        this.cognitoService = cognitoService;
+        this.cognitoOutboxService = cognitoOutboxService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        // Uma importação por vez; poucas aguardando na fila
+        this.executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(4),
+                r -> {
+                    Thread thread = new Thread(r, "importacao-usuarios");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    // Leitura da entrada
+
+    public List<UsuarioRegisterDTO> lerJson(InputStream entrada) throws IOException {
+        List<UsuarioRegisterDTO> linhas = new ArrayList<>();
+        try (MappingIterator<UsuarioRegisterDTO> iterator =
+                     objectMapper.readerFor(UsuarioRegisterDTO.class).readValues(entrada)) {
+            while (iterator.hasNext()) {
+                adicionar(linhas, iterator.next());
+            }
+        }
+        return linhas;
+    }
+
+    /**
+     * Lê CSV com cabeçalho ({@code nome,cpf,telefone,email,password,cargo}, em qualquer ordem).
+     */
+    public List<UsuarioRegisterDTO> lerCsv(InputStream entrada) throws IOException {
+        List<UsuarioRegisterDTO> linhas = new ArrayList<>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(entrada, StandardCharsets.UTF_8));
+        String cabecalho = reader.readLine();
+        if (cabecalho == null) {
+            return linhas;
+        }
+        List<String> colunas = LeitorCsv.separar(cabecalho.replace(LeitorCsv.BOM, ""), ",;").stream()
+                .map(c -> c.trim().toLowerCase(Locale.ROOT))
+                .collect(Collectors.toList());
+
+        String linha;
+        while ((linha = reader.readLine()) != null) {
+            if (linha.isBlank()) {
+                continue;
+            }
+            List<String> valores = LeitorCsv.separar(linha, ",;");
+            UsuarioRegisterDTO dto = new UsuarioRegisterDTO();
+            for (int i = 0; i < colunas.size() && i < valores.size(); i++) {
+                String valor = valores.get(i);
+                switch (colunas.get(i)) {
+                    case "nome" -> dto.setNome(valor);
+                    case "cpf" -> dto.setCpf(valor);
+                    case "telefone" -> dto.setTelefone(valor);
+                    case "email" -> dto.setEmail(valor);
+                    case "password", "senha" -> dto.setPassword(valor);
+                    case "cargo" -> dto.setCargo(valor);
+                    default -> { }
+                }
+            }
+            adicionar(linhas, dto);
+        }
+        return linhas;
+    }
+
+    private void adicionar(List<UsuarioRegisterDTO> linhas, UsuarioRegisterDTO dto) {
+        if (linhas.size() >= maximoLinhas) {
+            throw new IllegalArgumentException("A importação aceita no máximo " + maximoLinhas + " linhas");
+        }
+        linhas.add(dto);
+    }
+
+    // Ciclo de vida da importação
+
+    /**
+     * Inicia uma importação, ou retoma a informada, e processa em segundo plano.
+     */
+    public ImportacaoResumo iniciar(List<UsuarioRegisterDTO> linhas, Long idImportacao, Long idResponsavel) {
+        if (linhas.isEmpty()) {
+            throw new IllegalArgumentException("Nenhuma linha para importar");
+        }
+
+        ImportacaoUsuarios importacao;
+        if (idImportacao != null) {
+            importacao = importacaoRepository.findById(idImportacao)
+                    .orElseThrow(() -> new IllegalArgumentException("Importação não encontrada com ID: " + idImportacao));
+            if (emExecucao.contains(idImportacao)) {
+                throw new IllegalStateException("Importação já está em andamento");
+            }
+        } else {
+            importacao = new ImportacaoUsuarios();
+            importacao.setIdUsuarioResponsavel(idResponsavel);
+        }
+        importacao.setStatus(ImportacaoUsuarios.Status.PROCESSANDO);
+        importacao.setTotalLinhas(linhas.size());
+        importacao = importacaoRepository.save(importacao);
+
+        Long id = importacao.getId();
+        if (!emExecucao.add(id)) {
+            throw new IllegalStateException("Importação já está em andamento");
+        }
+        try {
+            executor.execute(() -> executar(id, linhas));
+        } catch (RejectedExecutionException e) {
+            emExecucao.remove(id);
+            importacao.setStatus(ImportacaoUsuarios.Status.INTERROMPIDA);
+            importacaoRepository.save(importacao);
+            throw new IllegalStateException("Muitas importações na fila; tente novamente mais tarde", e);
+        }
+        return resumo(importacao);
+    }
+
+    public Optional<ImportacaoResumo> buscarResumo(Long id) {
+        return importacaoRepository.findById(id).map(this::resumo);
+    }
+
+    public Page<ImportacaoItemDTO> buscarItens(Long id, ImportacaoUsuarioItem.Status status, Pageable pageable) {
+        Page<ImportacaoUsuarioItem> itens = status == null
+                ? itemRepository.findByImportacaoId(id, pageable)
+                : itemRepository.findByImportacaoIdAndStatus(id, status, pageable);
+        return itens.map(ImportacaoItemDTO::of);
+    }
+
+    private ImportacaoResumo resumo(ImportacaoUsuarios importacao) {
+        Map<ImportacaoUsuarioItem.Status, Long> contagem = new HashMap<>();
+        for (Object[] linha : itemRepository.countByStatus(importacao.getId())) {
+            contagem.put((ImportacaoUsuarioItem.Status) linha[0], (Long) linha[1]);
+        }
+        return new ImportacaoResumo(importacao.getId(), importacao.getStatus(), importacao.getTotalLinhas(),
+                contagem.getOrDefault(ImportacaoUsuarioItem.Status.CRIADO, 0L),
+                contagem.getOrDefault(ImportacaoUsuarioItem.Status.PROVISIONADO, 0L),
+                contagem.getOrDefault(ImportacaoUsuarioItem.Status.ERRO, 0L),
+                importacao.getCreatedAt(), importacao.getUpdatedAt());
+    }
+
+    private void executar(Long idImportacao, List<UsuarioRegisterDTO> linhas) {
+        ImportacaoUsuarios.Status statusFinal = ImportacaoUsuarios.Status.CONCLUIDA;
+        try {
+            Map<Integer, ImportacaoUsuarioItem> anteriores = new HashMap<>();
+            for (ImportacaoUsuarioItem item : itemRepository.findProcessados(idImportacao)) {
+                anteriores.put(item.getLinha(), item);
+            }
+
+            // Orçamento compartilhado por todos os blocos: cada usuário custa duas chamadas
+            TokenBucket orcamento = new TokenBucket(Math.max(1, requisicoesPorSegundo),
+                    Duration.ofNanos(1_000_000_000L / Math.max(1, requisicoesPorSegundo)));
+            Set<String> cpfsVistos = new HashSet<>();
+            Set<String> emailsVistos = new HashSet<>();
+
+            for (int inicio = 0; inicio < linhas.size(); inicio += tamanhoBloco) {
+                int fim = Math.min(inicio + tamanhoBloco, linhas.size());
+                List<Linha> bloco = new ArrayList<>(fim - inicio);
+                for (int i = inicio; i < fim; i++) {
+                    // Linhas numeradas a partir de 1, na ordem em que vieram
+                    bloco.add(new Linha(i + 1, linhas.get(i)));
+                }
+                processarBloco(idImportacao, bloco, anteriores, cpfsVistos, emailsVistos, orcamento);
+            }
+            logger.info("Importação {} concluída ({} linhas)", idImportacao, linhas.size());
+        } catch (Exception e) {
+            statusFinal = ImportacaoUsuarios.Status.INTERROMPIDA;
+            logger.error("Importação {} interrompida: {}", idImportacao, e.getMessage(), e);
+        } finally {
+            ImportacaoUsuarios.Status status = statusFinal;
+            importacaoRepository.findById(idImportacao).ifPresent(importacao -> {
+                importacao.setStatus(status);
+                importacaoRepository.save(importacao);
+            });
+            emExecucao.remove(idImportacao);
+        }
+    }
+
+    private void processarBloco(Long idImportacao, List<Linha> bloco, Map<Integer, ImportacaoUsuarioItem> anteriores,
+                                Set<String> cpfsVistos, Set<String> emailsVistos, TokenBucket orcamento) {
+        List<Linha> novas = new ArrayList<>();
+        for (Linha linha : bloco) {
+            ImportacaoUsuarioItem anterior = anteriores.get(linha.numero);
+            if (anterior != null && anterior.getStatus() == ImportacaoUsuarioItem.Status.CRIADO) {
+                linha.status = ImportacaoUsuarioItem.Status.CRIADO;
+                linha.jaGravada = true;
+                continue;
+            }
+            String erro = validar(linha);
+            if (erro == null && !cpfsVistos.add(linha.cpf)) {
+                erro = "CPF repetido no arquivo";
+            }
+            if (erro == null && !emailsVistos.add(linha.email)) {
+                erro = "Email repetido no arquivo";
+            }
+            if (erro != null) {
+                linha.falhar(erro);
+            } else if (anterior != null) {
+                // Já existe no Cognito desde a execução anterior; falta só o banco
+                linha.status = ImportacaoUsuarioItem.Status.PROVISIONADO;
+                linha.cognitoId = anterior.getCognitoId();
+            } else {
+                novas.add(linha);
+            }
+        }
+
+        verificarDuplicidade(novas);
+        provisionar(novas, orcamento);
+
+        // Grava o que já foi criado no Cognito antes de tocar em usuario, para poder retomar
+        List<Linha> provisionadas = bloco.stream()
+                .filter(l -> l.status == ImportacaoUsuarioItem.Status.PROVISIONADO)
+                .collect(Collectors.toList());
+        gravarItens(idImportacao, provisionadas);
+
+        inserirUsuarios(provisionadas);
+
+        gravarItens(idImportacao, bloco.stream().filter(l -> !l.jaGravada).collect(Collectors.toList()));
+    }
+
+    // Mesmas regras do /register (UsuarioService.validarCampos); senha e cargo vêm só do arquivo
+    private String validar(Linha linha) {
+        UsuarioRegisterDTO dto = linha.dto;
+        Cargo cargo;
+        try {
+            cargo = Cargo.valueOf(String.valueOf(dto.getCargo()).trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return "Cargo inválido. Deve ser ADMIN ou PRODUTOR";
+        }
+        Usuario usuario = new Usuario();
+        usuario.setNome(dto.getNome());
+        usuario.setCpf(linha.cpf);
+        usuario.setTelefone(linha.telefone);
+        usuario.setEmail(linha.email);
+        usuario.setCargo(cargo);
+        List<String> erros = usuarioService.validarCampos(usuario);
+        if (!erros.isEmpty()) {
+            return erros.get(0);
+        }
+        if (dto.getPassword() == null || dto.getPassword().isEmpty()) {
+            return "Senha é obrigatória";
+        }
+        return null;
+    }
+
+    // Duas consultas por bloco, em vez de duas por linha
+    private void verificarDuplicidade(List<Linha> linhas) {
+        if (linhas.isEmpty()) {
+            return;
+        }
+        Set<String> cpfsExistentes = new HashSet<>(usuarioRepository.findCpfsExistentes(
+                linhas.stream().map(l -> l.cpf).collect(Collectors.toSet())));
+        Set<String> emailsExistentes = new HashSet<>(usuarioRepository.findEmailsExistentes(
+                linhas.stream().map(l -> l.email).collect(Collectors.toSet())));
+
+        linhas.removeIf(linha -> {
+            if (cpfsExistentes.contains(linha.cpf)) {
+                linha.falhar("CPF já cadastrado");
+                return true;
+            }
+            if (emailsExistentes.contains(linha.email)) {
+                linha.falhar("Email já cadastrado");
+                return true;
+            }
+            return false;
+        });
+    }
+
+    private void provisionar(List<Linha> linhas, TokenBucket orcamento) {
+        Semaphore emVoo = new Semaphore(Math.max(1, concorrencia));
+        List<CompletableFuture<Void>> envios = new ArrayList<>(linhas.size());
+
+        for (Linha linha : linhas) {
+            try {
+                emVoo.acquire();
+                // signUp + adminConfirmSignUp
+                aguardarOrcamento(orcamento);
+                aguardarOrcamento(orcamento);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Importação interrompida", e);
+            }
+
+            String nome = linha.dto.getNome().trim();
+            CompletableFuture<Void> envio = cognitoGateway.cadastrar(linha.email, linha.dto.getPassword(), nome)
+                    .thenCompose(sub -> {
+                        linha.cognitoId = sub;
+                        return cognitoGateway.confirmarCadastro(linha.email);
+                    })
+                    .handle((ok, erro) -> {
+                        if (erro == null) {
+                            linha.status = ImportacaoUsuarioItem.Status.PROVISIONADO;
+                        } else {
+                            falhaNoCognito(linha, erro instanceof CompletionException && erro.getCause() != null
+                                    ? erro.getCause() : erro);
+                        }
+                        return null;
+                    });
+            envio.whenComplete((ok, erro) -> emVoo.release());
+            envios.add(envio);
+        }
+
+        CompletableFuture.allOf(envios.toArray(new CompletableFuture[0])).join();
+        linhas.forEach(l -> cognitoService.invalidarExistencia(l.email));
+    }
+
+    private void falhaNoCognito(Linha linha, Throwable erro) {
+        Motivo motivo = erro instanceof IdentityProviderException ipe ? ipe.getMotivo() : null;
+        if (motivo == Motivo.USUARIO_EXISTENTE) {
+            linha.falhar("Usuário já existe no Cognito");
+        } else if (motivo == Motivo.SENHA_INVALIDA) {
+            linha.falhar("A senha não atende aos requisitos de segurança");
+        } else {
+            linha.falhar("Erro ao registrar usuário no Cognito: " + erro.getMessage());
+        }
+
+        // Criado mas não confirmado: desfaz para não deixar usuário órfão no Cognito
+        if (linha.cognitoId != null) {
+            desfazerNoCognito(List.of(linha));
+        }
+    }
+
+    private static void aguardarOrcamento(TokenBucket orcamento) throws InterruptedException {
+        Duration espera;
+        while (!(espera = orcamento.tentarConsumir()).isZero()) {
+            TimeUnit.NANOSECONDS.sleep(espera.toNanos());
+        }
+    }
+
+    private void inserirUsuarios(List<Linha> linhas) {
+        if (linhas.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    jdbcTemplate.batchUpdate(INSERIR_USUARIO, linhas, linhas.size(), (ps, linha) -> {
+                        Timestamp agora = Timestamp.valueOf(LocalDateTime.now());
+                        ps.setString(1, linha.dto.getNome().trim());
+                        ps.setString(2, linha.cpf);
+                        ps.setString(3, linha.telefone);
+                        ps.setString(4, linha.email);
+                        ps.setString(5, linha.dto.getCargo().trim().toUpperCase(Locale.ROOT));
+                        ps.setString(6, linha.cognitoId);
+                        ps.setTimestamp(7, agora);
+                        ps.setTimestamp(8, agora);
+                    }));
+            linhas.forEach(l -> l.status = ImportacaoUsuarioItem.Status.CRIADO);
+        } catch (DataAccessException e) {
+            // Alguma linha violou unicidade (concorrência com outro cadastro): refaz uma a uma
+            logger.warn("Batch de usuários falhou, inserindo individualmente: {}", e.getMessage());
+            List<Linha> falhas = new ArrayList<>();
+            for (Linha linha : linhas) {
+                try {
+                    jdbcTemplate.update(INSERIR_USUARIO, linha.dto.getNome().trim(), linha.cpf, linha.telefone,
+                            linha.email, linha.dto.getCargo().trim().toUpperCase(Locale.ROOT), linha.cognitoId,
+                            Timestamp.valueOf(LocalDateTime.now()), Timestamp.valueOf(LocalDateTime.now()));
+                    linha.status = ImportacaoUsuarioItem.Status.CRIADO;
+                } catch (DataAccessException ex) {
+                    linha.falhar("Erro ao salvar usuário: CPF ou email já cadastrado");
+                    falhas.add(linha);
+                }
+            }
+            desfazerNoCognito(falhas);
+        }
+    }
+
+    // A exclusão no Cognito vai pelo outbox, com retentativas
+    private void desfazerNoCognito(List<Linha> linhas) {
+        if (linhas.isEmpty()) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status ->
+                linhas.forEach(l -> cognitoOutboxService.enfileirarExclusao(l.email)));
+    }
+
+    private void gravarItens(Long idImportacao, List<Linha> linhas) {
+        if (linhas.isEmpty()) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status ->
+                jdbcTemplate.batchUpdate(GRAVAR_ITEM, linhas, linhas.size(), (ps, linha) -> {
+                    Timestamp agora = Timestamp.valueOf(LocalDateTime.now());
+                    ps.setLong(1, idImportacao);
+                    ps.setInt(2, linha.numero);
+                    ps.setString(3, linha.email);
+                    ps.setString(4, linha.status.name());
+                    ps.setString(5, linha.mensagem);
+                    ps.setString(6, linha.cognitoId);
+                    ps.setTimestamp(7, agora);
+                    ps.setTimestamp(8, agora);
+                }));
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        executor.shutdownNow();
+    }
+
+    private static class Linha {
+        private final int numero;
+        private final UsuarioRegisterDTO dto;
+        private final String cpf;
+        private final String telefone;
+        private final String email;
+
+        private volatile ImportacaoUsuarioItem.Status status;
+        private volatile String mensagem;
+        private volatile String cognitoId;
+        // Criada em uma execução anterior; não precisa ser gravada de novo
+        private boolean jaGravada;
+
+        private Linha(int numero, UsuarioRegisterDTO dto) {
+            this.numero = numero;
+            this.dto = dto;
+            this.cpf = dto.getCpf() == null ? null : dto.getCpf().replaceAll("[^0-9]", "");
+            this.telefone = dto.getTelefone() == null ? null : dto.getTelefone().replaceAll("[^0-9]", "");
+            this.email = dto.getEmail() == null ? null : dto.getEmail().trim().toLowerCase(Locale.ROOT);
+        }
+
+        private void falhar(String motivo) {
+            this.status = ImportacaoUsuarioItem.Status.ERRO;
+            this.mensagem = motivo.length() > 500 ? motivo.substring(0, 500) : motivo;
+        }
+    }
+}
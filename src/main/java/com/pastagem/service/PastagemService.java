@@ -1,10 +1,19 @@
 package com.pastagem.service;
 
+import com.pastagem.dto.PastagemAlteracaoLoteDTO;
+import com.pastagem.dto.PastagemCreateDTO;
+import com.pastagem.dto.PastagemFiltroLoteDTO;
+import com.pastagem.dto.VersaoExportacao;
 import com.pastagem.model.Pastagem;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import com.pastagem.util.KeysetCursor;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -12,21 +21,38 @@ public interface PastagemService {
 
     // Operações básicas CRUD
     Page<Pastagem> findAll(Pageable pageable);
+    Slice<Pastagem> findAll(KeysetCursor cursor, int size);
+    Long estimarTotal();
     List<Pastagem> findAll();
+
+    // Exportação NDJSON em streaming
+    VersaoExportacao versaoExportacao(Long propriedadeId, String tipoPasto, LocalDateTime desde);
+    long exportar(Long propriedadeId, String tipoPasto, LocalDateTime desde, OutputStream saida) throws IOException;
     Optional<Pastagem> findById(Long id);
     boolean existsById(Long id);
     Pastagem save(Pastagem pastagem);
+    List<Pastagem> saveAll(List<PastagemCreateDTO> pastagens, Long usuarioId);
+
+    // Alteração e exclusão em lote (retornam a quantidade de pastagens afetadas)
+    long atualizarEmLote(PastagemAlteracaoLoteDTO alteracao, Long usuarioId);
+    long excluirEmLote(PastagemFiltroLoteDTO filtro, Long usuarioId);
+
+    // Regras de validarPastagem que não dependem do banco (a propriedade é verificada à parte)
+    List<String> validarCampos(PastagemCreateDTO dto);
     void deleteById(Long id);
 
     // Operações específicas de busca
     List<Pastagem> findByPropriedadeId(Long propriedadeId);
     List<Pastagem> findByTipoPasto(String tipoPasto);
     List<Pastagem> findByNomeContaining(String nome);
+    Slice<Pastagem> pesquisarPorNome(String termo, int page, int size);
     List<Pastagem> findByAreaHectaresBetween(BigDecimal areaMin, BigDecimal areaMax);
     List<Pastagem> findByCapacidadeSuporteBetween(Integer capacidadeMin, Integer capacidadeMax);
+    Slice<Pastagem> findByDensidadeBetween(BigDecimal densidadeMin, BigDecimal densidadeMax, int page, int size);
+    Slice<Pastagem> findByPropriedadeIdOrderByDensidadeDesc(Long propriedadeId, int page, int size);
 
     // Operações de relatório e análise
-    List<Pastagem> findPastagensComCapacidadeInadequada();
+    Slice<Pastagem> findPastagensComCapacidadeInadequada(int page, int size);
     BigDecimal calcularAreaTotalPorPropriedade(Long propriedadeId);
     Integer calcularCapacidadeTotalPorPropriedade(Long propriedadeId);
     BigDecimal calcularDensidadeMediaPorPropriedade(Long propriedadeId);
@@ -1,30 +1,50 @@
 package com.pastagem.service;
 
+import com.pastagem.dto.AreaPropriedade;
+import com.pastagem.dto.PainelPropriedade;
+import com.pastagem.dto.VersaoExportacao;
 import com.pastagem.model.Propriedade;
 import com.pastagem.model.Pastagem;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import com.pastagem.util.KeysetCursor;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 public interface PropriedadeService {
     // Operações básicas CRUD
     Page<Propriedade> findAll(Pageable pageable);
     List<Propriedade> findAll();
+
+    // Exportação NDJSON em streaming
+    VersaoExportacao versaoExportacao(Long usuarioId, String cidade, String estado, LocalDateTime desde);
+    long exportar(Long usuarioId, String cidade, String estado, LocalDateTime desde, OutputStream saida) throws IOException;
     Optional<Propriedade> findById(Long id);
     boolean existsById(Long id);
+    Propriedade getReferenceById(Long id);
+    Set<Long> findIdsExistentes(Collection<Long> ids, Long usuarioId);
     Propriedade save(Propriedade propriedade, String userId);
     void deleteById(Long id);
 
     // Novos métodos com id_usuario
     Page<Propriedade> findByUsuarioId(Long usuarioId, Pageable pageable);
+    Slice<Propriedade> findByUsuarioId(Long usuarioId, KeysetCursor cursor, int size);
+    long countByUsuarioId(Long usuarioId);
     Optional<Propriedade> findByIdAndUsuarioId(Long id, Long usuarioId);
     boolean existsByIdAndUsuarioId(Long id, Long usuarioId);
     List<Propriedade> findByUsuarioIdAndCidade(Long usuarioId, String cidade);
     List<Propriedade> findByUsuarioIdAndEstado(Long usuarioId, String estado);
     List<Propriedade> findByUsuarioIdAndNomeContaining(Long usuarioId, String nome);
+    Slice<Propriedade> pesquisarPorNome(Long usuarioId, String termo, int page, int size);
     List<Propriedade> findByUsuarioIdAndCidadeAndEstado(Long usuarioId, String cidade, String estado);
 
     // Operações específicas de busca
@@ -38,4 +58,8 @@ public interface PropriedadeService {
     List<Pastagem> findPastagensByPropriedadeId(Long propriedadeId);
     long countPastagensByPropriedadeId(Long propriedadeId);
     BigDecimal calcularAreaTotalPastagens(Long propriedadeId);
+    Optional<PainelPropriedade> buscarPainel(Long propriedadeId, Long usuarioId);
+    Map<Long, AreaPropriedade> buscarAreas(Collection<Long> ids, Long usuarioId);
+    // Como buscarAreas, bloqueando o resumo das propriedades até o fim da transação atual
+    Map<Long, AreaPropriedade> bloquearAreas(Collection<Long> ids, Long usuarioId);
 }
\ No newline at end of file
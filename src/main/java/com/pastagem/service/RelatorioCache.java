@@ -0,0 +1,96 @@
+package com.pastagem.service;
+
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.pastagem.repository.PastagemRepository;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Cache dos relatórios agregados de pastagens, uma entrada por relatório.
+ *
+ * Depois de {@code relatorio.cache.refresh} a entrada continua sendo servida
+ * enquanto é recalculada em segundo plano (stale-while-revalidate); depois de
+ * {@code relatorio.cache.ttl} sem recálculo ela expira. Os serviços publicam
+ * {@link DadosAlterados} ao alterar pastagens ou propriedades, e a entrada é
+ * descartada após o commit. Acertos e falhas ficam em {@code /actuator/metrics}
+ * ({@code cache.gets} e {@code cache.hit.ratio}, tag {@code cache=pastagem.relatorio}).
+ */
+@Component
+public class RelatorioCache {
+
+    public enum Relatorio {
+        RESUMO_PROPRIEDADES,
+        POR_TIPO_PASTO
+    }
+
+    /**
+     * Alteração que torna relatórios desatualizados. Tratada após o commit, ou na hora
+     * quando publicada fora de transação (importação por COPY).
+     */
+    public record DadosAlterados(Set<Relatorio> relatorios) {
+
+        public static DadosAlterados pastagens() {
+            return new DadosAlterados(EnumSet.allOf(Relatorio.class));
+        }
+
+        // Só o resumo por propriedade lista dados da propriedade
+        public static DadosAlterados propriedades() {
+            return new DadosAlterados(EnumSet.of(Relatorio.RESUMO_PROPRIEDADES));
+        }
+    }
+
+    private static final String NOME = "pastagem.relatorio";
+
+    private final PastagemRepository pastagemRepository;
+    private final LoadingCache<Relatorio, List<Object[]>> cache;
+
+    public RelatorioCache(PastagemRepository pastagemRepository, MeterRegistry meterRegistry,
+                          @Value("${relatorio.cache.max-size:16}") long tamanhoMaximo,
+                          @Value("${relatorio.cache.refresh:PT5M}") Duration recalculo,
+                          @Value("${relatorio.cache.ttl:PT1H}") Duration ttl) {
+        this.pastagemRepository = pastagemRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .refreshAfterWrite(recalculo)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build(this::consultar);
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, NOME);
+        Gauge.builder("cache.hit.ratio", cache, c -> c.stats().hitRate())
+                .tag("cache", NOME)
+                .description("Fração das leituras atendidas pelo cache")
+                .register(meterRegistry);
+    }
+
+    public List<Object[]> obter(Relatorio relatorio) {
+        return cache.get(relatorio);
+    }
+
+    // Uma invalidação espera uma carga em andamento da mesma chave e a descarta em seguida,
+    // então um resultado lido antes do commit não permanece no cache
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void aoAlterarDados(DadosAlterados evento) {
+        cache.invalidateAll(evento.relatorios());
+    }
+
+    private List<Object[]> consultar(Relatorio relatorio) {
+        List<Object[]> linhas = switch (relatorio) {
+            case RESUMO_PROPRIEDADES -> pastagemRepository.findResumoPropriedades();
+            case POR_TIPO_PASTO -> pastagemRepository.findRelatorioPorTipoPasto();
+        };
+        return List.copyOf(linhas);
+    }
+}
@@ -1,11 +1,17 @@
 package com.pastagem.service;
 
+import com.pastagem.dto.VersaoExportacao;
 import com.pastagem.model.Usuario;
 import com.pastagem.model.Propriedade;
 import com.pastagem.model.Cargo;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import com.pastagem.util.KeysetCursor;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,10 +19,18 @@ public interface UsuarioService {
 
     // Operações básicas CRUD
     Page<Usuario> findAll(Pageable pageable);
+    Slice<Usuario> findAll(KeysetCursor cursor, int size);
+    Long estimarTotal();
     List<Usuario> findAll();
+
+    // Exportação NDJSON em streaming
+    VersaoExportacao versaoExportacao(Cargo cargo, LocalDateTime desde);
+    long exportar(Cargo cargo, LocalDateTime desde, OutputStream saida) throws IOException;
     Optional<Usuario> findById(Long id);
+    Usuario getReferenceById(Long id);
     boolean existsById(Long id);
     Usuario save(Usuario usuario);
+    Optional<Usuario> update(Long id, Usuario usuario);
     void deleteById(Long id);
 
     // Operações específicas de busca
@@ -25,7 +39,12 @@ public interface UsuarioService {
     Optional<Usuario> findByCognitoId(String cognitoId);
     boolean existsByCpf(String cpf);
     boolean existsByEmail(String email);
+    void verificarDuplicidade(String cpf, String email, Long idIgnorado);
+
+    // Regras de validarUsuario que não dependem do banco (formato e restrições da entidade)
+    List<String> validarCampos(Usuario usuario);
     List<Usuario> findByNomeContaining(String nome);
+    Slice<Usuario> pesquisarPorNome(String termo, int page, int size);
     List<Usuario> findByCargo(Cargo cargo);
 
     // Operações relacionadas
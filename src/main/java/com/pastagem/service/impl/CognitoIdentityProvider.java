@@ -0,0 +1,366 @@
+package com.pastagem.service.impl;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.ClientConfiguration;
+import com.amazonaws.SdkClientException;
+import com.amazonaws.auth.AWSStaticCredentialsProvider;
+import com.amazonaws.auth.BasicAWSCredentials;
+import com.amazonaws.regions.Regions;
+import com.amazonaws.retry.RetryUtils;
+import com.amazonaws.services.cognitoidp.AWSCognitoIdentityProvider;
+import com.amazonaws.services.cognitoidp.AWSCognitoIdentityProviderClientBuilder;
+import com.amazonaws.services.cognitoidp.model.*;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pastagem.dto.IdentityTokens;
+import com.pastagem.service.IdentityProvider;
+import com.pastagem.service.IdentityProviderException;
+import com.pastagem.service.IdentityProviderException.Motivo;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.RestTemplate;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link IdentityProvider} do AWS Cognito: login e refresh pela API REST
+ * ({@code InitiateAuth}), JWKS pelo endpoint público do user pool e
+ * administração de usuários pelo SDK.
+ */
+@Service
+@ConditionalOnProperty(name = "identity.provider", havingValue = "cognito", matchIfMissing = true)
+public class CognitoIdentityProvider implements IdentityProvider {
+    private static final Logger logger = LoggerFactory.getLogger(CognitoIdentityProvider.class);
+
+    private AWSCognitoIdentityProvider cognitoClient;
+    private final RestTemplate restTemplate;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Value("${aws.cognito.url}")
+    private String cognitoUrl;
+
+    @Value("${aws.cognito.userPoolId}")
+    private String userPoolId;
+
+    @Value("${aws.cognito.clientId}")
+    private String clientId;
+
+    @Value("${aws.cognito.clientSecret}")
+    private String clientSecret;
+
+    @Value("${aws.cognito.region:sa-east-1}")
+    private String region;
+
+    @Value("${aws.accessKey}")
+    private String accessKey;
+
+    @Value("${aws.secretKey}")
+    private String secretKey;
+
+    @Value("${http.client.max-total:50}")
+    private int maxConexoesSdk;
+
+    @Value("${http.client.connect-timeout:PT2S}")
+    private Duration connectTimeout;
+
+    @Value("${http.client.read-timeout:PT5S}")
+    private Duration readTimeout;
+
+    public CognitoIdentityProvider(RestTemplate restTemplate) {
+        this.restTemplate = restTemplate;
+    }
+
+    @PostConstruct
+    public void init() {
+        if (region == null || region.trim().isEmpty()) {
+            region = "sa-east-1"; // valor padrão
+        }
+
+        logger.info("Inicializando cliente Cognito com região: {}", region);
+
+        BasicAWSCredentials awsCredentials = new BasicAWSCredentials(accessKey, secretKey);
+
+        // O SDK mantém seu próprio pool; aplica os mesmos limites e timeouts do cliente HTTP compartilhado
+        ClientConfiguration clientConfiguration = new ClientConfiguration()
+                .withMaxConnections(maxConexoesSdk)
+                .withConnectionTimeout((int) connectTimeout.toMillis())
+                .withSocketTimeout((int) readTimeout.toMillis())
+                .withRequestTimeout((int) readTimeout.toMillis())
+                .withTcpKeepAlive(true);
+
+        this.cognitoClient = AWSCognitoIdentityProviderClientBuilder.standard()
+                .withRegion(Regions.fromName(region.trim()))
+                .withCredentials(new AWSStaticCredentialsProvider(awsCredentials))
+                .withClientConfiguration(clientConfiguration)
+                .build();
+    }
+
+    // Autenticação
+
+    @Override
+    public IdentityTokens autenticar(String username, String password) {
+        Map<String, Object> authParams = new HashMap<>();
+        authParams.put("USERNAME", username);
+        authParams.put("PASSWORD", password);
+        authParams.put("SECRET_HASH", calculateSecretHash(username));
+
+        JsonNode authResult = initiateAuth("USER_PASSWORD_AUTH", authParams);
+        return IdentityTokens.builder()
+                .idToken(authResult.get("IdToken").asText())
+                .accessToken(authResult.get("AccessToken").asText())
+                .refreshToken(authResult.get("RefreshToken").asText())
+                .build();
+    }
+
+    @Override
+    public IdentityTokens renovar(String refreshToken, String username) {
+        Map<String, Object> authParams = new HashMap<>();
+        authParams.put("REFRESH_TOKEN", refreshToken);
+        authParams.put("SECRET_HASH", calculateSecretHash(username));
+
+        JsonNode authResult = initiateAuth("REFRESH_TOKEN_AUTH", authParams);
+        if (!authResult.has("IdToken") || !authResult.has("AccessToken")) {
+            throw new IdentityProviderException(Motivo.DESCONHECIDO, "Resposta de refresh token inesperada");
+        }
+        return IdentityTokens.builder()
+                .idToken(authResult.get("IdToken").asText())
+                .accessToken(authResult.get("AccessToken").asText())
+                .build();
+    }
+
+    @SuppressWarnings("null")
+    @Override
+    public JsonNode jwks() {
+        String jwksUrl = String.format("%s/%s/.well-known/jwks.json", cognitoUrl, userPoolId);
+        try {
+            ResponseEntity<JsonNode> response = restTemplate.getForEntity(jwksUrl, JsonNode.class);
+            if (response.getStatusCode() != HttpStatus.OK || response.getBody() == null) {
+                throw new IdentityProviderException(Motivo.INDISPONIVEL,
+                        "Resposta inesperada do JWKS: " + response.getStatusCode());
+            }
+            return response.getBody();
+        } catch (IdentityProviderException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IdentityProviderException(Motivo.INDISPONIVEL, "Erro ao buscar JWKS: " + e.getMessage(), e);
+        }
+    }
+
+    @SuppressWarnings("null")
+    private JsonNode initiateAuth(String authFlow, Map<String, Object> authParams) {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("AuthFlow", authFlow);
+        payload.put("ClientId", clientId);
+        payload.put("AuthParameters", authParams);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Content-Type", "application/x-amz-json-1.1");
+        headers.set("X-Amz-Target", "AWSCognitoIdentityProviderService.InitiateAuth");
+
+        try {
+            String body = objectMapper.writeValueAsString(payload);
+            ResponseEntity<String> response = restTemplate.postForEntity(cognitoUrl, new HttpEntity<>(body, headers), String.class);
+
+            JsonNode authResult = objectMapper.readTree(response.getBody()).get("AuthenticationResult");
+            if (authResult == null) {
+                throw new IdentityProviderException(Motivo.DESCONHECIDO, "Resposta do Cognito sem AuthenticationResult");
+            }
+            return authResult;
+        } catch (HttpStatusCodeException e) {
+            throw traduzirErroRest(e);
+        } catch (IdentityProviderException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IdentityProviderException(Motivo.INDISPONIVEL, e.getMessage(), e);
+        }
+    }
+
+    private IdentityProviderException traduzirErroRest(HttpStatusCodeException e) {
+        String tipo = "";
+        try {
+            JsonNode erro = objectMapper.readTree(e.getResponseBodyAsString());
+            if (erro != null && erro.has("__type")) {
+                tipo = erro.get("__type").asText();
+            }
+        } catch (Exception ignored) {
+            // corpo de erro não é JSON
+        }
+
+        Motivo motivo;
+        if (tipo.endsWith("NotAuthorizedException")) {
+            motivo = Motivo.CREDENCIAIS_INVALIDAS;
+        } else if (tipo.endsWith("UserNotFoundException")) {
+            motivo = Motivo.USUARIO_NAO_ENCONTRADO;
+        } else if (e.getStatusCode().is5xxServerError() || tipo.endsWith("TooManyRequestsException")) {
+            motivo = Motivo.INDISPONIVEL;
+        } else {
+            motivo = Motivo.DESCONHECIDO;
+        }
+        return new IdentityProviderException(motivo, e.getMessage(), e);
+    }
+
+    // Administração de usuários
+
+    @Override
+    public boolean usuarioExiste(String email) {
+        if (userPoolId == null || userPoolId.trim().isEmpty()) {
+            throw new IdentityProviderException(Motivo.DESCONHECIDO, "UserPoolId não configurado");
+        }
+
+        AdminGetUserRequest request = new AdminGetUserRequest()
+                .withUserPoolId(userPoolId)
+                .withUsername(email);
+        try {
+            cognitoClient.adminGetUser(request);
+            return true;
+        } catch (UserNotFoundException e) {
+            return false;
+        } catch (Exception e) {
+            throw traduzirErroSdk(e);
+        }
+    }
+
+    @Override
+    public String cadastrar(String email, String password, String nome) {
+        // Criar atributos do usuário
+        List<AttributeType> userAttributes = new ArrayList<>();
+        userAttributes.add(new AttributeType().withName("email").withValue(email));
+        userAttributes.add(new AttributeType().withName("name").withValue(nome));
+
+        SignUpRequest signUpRequest = new SignUpRequest()
+                .withClientId(clientId)
+                .withUsername(email)
+                .withPassword(password)
+                .withUserAttributes(userAttributes);
+
+        // Adicionar secret hash se necessário
+        if (clientSecret != null && !clientSecret.isEmpty()) {
+            signUpRequest.setSecretHash(calculateSecretHash(email));
+        }
+
+        try {
+            return cognitoClient.signUp(signUpRequest).getUserSub();
+        } catch (Exception e) {
+            throw traduzirErroSdk(e);
+        }
+    }
+
+    @Override
+    public void confirmarCadastro(String email) {
+        AdminConfirmSignUpRequest request = new AdminConfirmSignUpRequest()
+                .withUserPoolId(userPoolId)
+                .withUsername(email);
+        try {
+            cognitoClient.adminConfirmSignUp(request);
+        } catch (Exception e) {
+            throw traduzirErroSdk(e);
+        }
+    }
+
+    @Override
+    public void excluirUsuario(String email) {
+        AdminDeleteUserRequest request = new AdminDeleteUserRequest()
+                .withUserPoolId(userPoolId)
+                .withUsername(email);
+        try {
+            cognitoClient.adminDeleteUser(request);
+        } catch (Exception e) {
+            throw traduzirErroSdk(e);
+        }
+    }
+
+    @Override
+    public void atualizarAtributos(String username, String novoEmail, String nome) {
+        List<AttributeType> userAttributes = new ArrayList<>();
+        userAttributes.add(new AttributeType().withName("email").withValue(novoEmail));
+        userAttributes.add(new AttributeType().withName("name").withValue(nome));
+
+        AdminUpdateUserAttributesRequest request = new AdminUpdateUserAttributesRequest()
+                .withUserPoolId(userPoolId)
+                .withUsername(username)
+                .withUserAttributes(userAttributes);
+        try {
+            cognitoClient.adminUpdateUserAttributes(request);
+        } catch (Exception e) {
+            throw traduzirErroSdk(e);
+        }
+    }
+
+    @Override
+    public void definirSenha(String username, String novaSenha) {
+        AdminSetUserPasswordRequest request = new AdminSetUserPasswordRequest()
+                .withUserPoolId(userPoolId)
+                .withUsername(username)
+                .withPassword(novaSenha)
+                .withPermanent(true);
+        try {
+            cognitoClient.adminSetUserPassword(request);
+        } catch (Exception e) {
+            throw traduzirErroSdk(e);
+        }
+    }
+
+    private IdentityProviderException traduzirErroSdk(Exception e) {
+        if (e instanceof UsernameExistsException) {
+            return new IdentityProviderException(Motivo.USUARIO_EXISTENTE, e.getMessage(), e);
+        }
+        if (e instanceof InvalidPasswordException) {
+            return new IdentityProviderException(Motivo.SENHA_INVALIDA, e.getMessage(), e);
+        }
+        if (e instanceof UserNotFoundException) {
+            return new IdentityProviderException(Motivo.USUARIO_NAO_ENCONTRADO, e.getMessage(), e);
+        }
+        if (e instanceof NotAuthorizedException) {
+            return new IdentityProviderException(Motivo.CREDENCIAIS_INVALIDAS, e.getMessage(), e);
+        }
+        if (e instanceof AmazonServiceException ase) {
+            // Throttling e erros 5xx são do provedor; os demais 4xx foram causados pela requisição
+            if (e instanceof TooManyRequestsException || RetryUtils.isThrottlingException(ase)
+                    || ase.getErrorType() == AmazonServiceException.ErrorType.Service || ase.getStatusCode() >= 500) {
+                return new IdentityProviderException(Motivo.INDISPONIVEL, e.getMessage(), e);
+            }
+            if (ase.getErrorType() == AmazonServiceException.ErrorType.Client) {
+                return new IdentityProviderException(Motivo.REQUISICAO_INVALIDA, e.getMessage(), e);
+            }
+        }
+        if (e instanceof SdkClientException) {
+            // Rede, DNS ou tempo esgotado antes de haver resposta
+            return new IdentityProviderException(Motivo.INDISPONIVEL, e.getMessage(), e);
+        }
+        return new IdentityProviderException(Motivo.DESCONHECIDO, e.getMessage(), e);
+    }
+
+    private String calculateSecretHash(String username) {
+        try {
+            String message = username + clientId;
+            SecretKeySpec signingKey = new SecretKeySpec(
+                clientSecret.getBytes(StandardCharsets.UTF_8),
+                "HmacSHA256"
+            );
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(signingKey);
+            byte[] rawHmac = mac.doFinal(message.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(rawHmac);
+        } catch (Exception e) {
+            logger.error("Erro ao calcular secret hash: {}", e.getMessage());
+            throw new RuntimeException("Erro ao calcular secret hash", e);
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package com.pastagem.service.impl;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.pastagem.dto.IdentityTokens;
+import com.pastagem.service.IdentityProvider;
+import com.pastagem.service.IdentityProviderException;
+import com.pastagem.service.IdentityProviderException.Motivo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * {@link IdentityProvider} em memória que imita o Cognito, para testes de carga
+ * e desenvolvimento sem acesso à AWS.
+ *
+ * Emite tokens RS256 com a mesma estrutura dos do Cognito (claims {@code sub},
+ * {@code email}, {@code name}, {@code token_use}) assinados por uma chave gerada
+ * na inicialização e publicada em {@link #jwks()}. A latência e a taxa de erro
+ * de cada chamada são configuráveis para simular um provedor degradado.
+ */
+@Service
+@ConditionalOnProperty(name = "identity.provider", havingValue = "local")
+public class LocalIdentityProvider implements IdentityProvider {
+    private static final Logger logger = LoggerFactory.getLogger(LocalIdentityProvider.class);
+
+    private final Map<String, UsuarioLocal> usuarios = new ConcurrentHashMap<>();
+    private final Map<String, String> refreshTokens = new ConcurrentHashMap<>();
+    private final SecureRandom random = new SecureRandom();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final String keyId = UUID.randomUUID().toString();
+    private final RSAPublicKey publicKey;
+    private final Algorithm algorithm;
+
+    @Value("${aws.cognito.clientId}")
+    private String clientId;
+
+    @Value("${identity.local.issuer:http://localhost/local-idp}")
+    private String issuer;
+
+    @Value("${identity.local.token-ttl:PT1H}")
+    private Duration tokenTtl;
+
+    @Value("${identity.local.latency:PT0S}")
+    private Duration latencia;
+
+    @Value("${identity.local.error-rate:0}")
+    private double taxaErro;
+
+    public LocalIdentityProvider() throws NoSuchAlgorithmException {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        KeyPair keyPair = generator.generateKeyPair();
+        this.publicKey = (RSAPublicKey) keyPair.getPublic();
+        this.algorithm = Algorithm.RSA256(publicKey, (RSAPrivateKey) keyPair.getPrivate());
+        logger.warn("Provedor de identidade LOCAL ativo: não use em produção");
+    }
+
+    // Autenticação
+
+    @Override
+    public IdentityTokens autenticar(String username, String password) {
+        simularRede();
+        UsuarioLocal usuario = usuarios.get(normalizar(username));
+        if (usuario == null || !usuario.confirmado || !usuario.senhaHash.equals(hash(password))) {
+            throw new IdentityProviderException(Motivo.CREDENCIAIS_INVALIDAS, "Incorrect username or password.");
+        }
+
+        String refreshToken = gerarTokenOpaco();
+        refreshTokens.put(refreshToken, usuario.email);
+        return IdentityTokens.builder()
+                .idToken(emitirToken(usuario, "id"))
+                .accessToken(emitirToken(usuario, "access"))
+                .refreshToken(refreshToken)
+                .build();
+    }
+
+    @Override
+    public IdentityTokens renovar(String refreshToken, String username) {
+        simularRede();
+        String email = refreshToken == null ? null : refreshTokens.get(refreshToken);
+        UsuarioLocal usuario = email == null ? null : usuarios.get(email);
+        if (usuario == null) {
+            throw new IdentityProviderException(Motivo.CREDENCIAIS_INVALIDAS, "Invalid Refresh Token");
+        }
+        return IdentityTokens.builder()
+                .idToken(emitirToken(usuario, "id"))
+                .accessToken(emitirToken(usuario, "access"))
+                .build();
+    }
+
+    @Override
+    public JsonNode jwks() {
+        simularRede();
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+
+        ObjectNode key = objectMapper.createObjectNode();
+        key.put("kty", "RSA");
+        key.put("alg", "RS256");
+        key.put("use", "sig");
+        key.put("kid", keyId);
+        key.put("n", encoder.encodeToString(semSinal(publicKey.getModulus().toByteArray())));
+        key.put("e", encoder.encodeToString(semSinal(publicKey.getPublicExponent().toByteArray())));
+
+        ObjectNode documento = objectMapper.createObjectNode();
+        ArrayNode keys = documento.putArray("keys");
+        keys.add(key);
+        return documento;
+    }
+
+    // Administração de usuários
+
+    @Override
+    public boolean usuarioExiste(String email) {
+        simularRede();
+        return usuarios.containsKey(normalizar(email));
+    }
+
+    @Override
+    public String cadastrar(String email, String password, String nome) {
+        simularRede();
+        if (password == null || password.length() < 8) {
+            throw new IdentityProviderException(Motivo.SENHA_INVALIDA, "Password did not conform with policy");
+        }
+        UsuarioLocal novo = new UsuarioLocal(UUID.randomUUID().toString(), normalizar(email), nome, hash(password));
+        if (usuarios.putIfAbsent(novo.email, novo) != null) {
+            throw new IdentityProviderException(Motivo.USUARIO_EXISTENTE, "User already exists");
+        }
+        return novo.sub;
+    }
+
+    @Override
+    public void confirmarCadastro(String email) {
+        simularRede();
+        buscar(email).confirmado = true;
+    }
+
+    @Override
+    public void excluirUsuario(String email) {
+        simularRede();
+        if (usuarios.remove(normalizar(email)) == null) {
+            throw new IdentityProviderException(Motivo.USUARIO_NAO_ENCONTRADO, "User does not exist.");
+        }
+        refreshTokens.values().removeIf(normalizar(email)::equals);
+    }
+
+    @Override
+    public void atualizarAtributos(String username, String novoEmail, String nome) {
+        simularRede();
+        UsuarioLocal atual = buscar(username);
+        UsuarioLocal atualizado = new UsuarioLocal(atual.sub, normalizar(novoEmail), nome, atual.senhaHash);
+        atualizado.confirmado = atual.confirmado;
+        if (!atualizado.email.equals(atual.email) && usuarios.putIfAbsent(atualizado.email, atualizado) != null) {
+            throw new IdentityProviderException(Motivo.USUARIO_EXISTENTE, "An account with the given email already exists.");
+        }
+        usuarios.put(atualizado.email, atualizado);
+        if (!atualizado.email.equals(atual.email)) {
+            usuarios.remove(atual.email);
+        }
+    }
+
+    @Override
+    public void definirSenha(String username, String novaSenha) {
+        simularRede();
+        if (novaSenha == null || novaSenha.length() < 8) {
+            throw new IdentityProviderException(Motivo.SENHA_INVALIDA, "Password did not conform with policy");
+        }
+        // O Cognito aceita tanto o e-mail quanto o sub como username
+        UsuarioLocal usuario = usuarios.values().stream()
+                .filter(u -> u.sub.equals(username) || u.email.equals(normalizar(username)))
+                .findFirst()
+                .orElseThrow(() -> new IdentityProviderException(Motivo.USUARIO_NAO_ENCONTRADO, "User does not exist."));
+        usuario.senhaHash = hash(novaSenha);
+    }
+
+    private UsuarioLocal buscar(String email) {
+        UsuarioLocal usuario = usuarios.get(normalizar(email));
+        if (usuario == null) {
+            throw new IdentityProviderException(Motivo.USUARIO_NAO_ENCONTRADO, "User does not exist.");
+        }
+        return usuario;
+    }
+
+    private String emitirToken(UsuarioLocal usuario, String tokenUse) {
+        Instant agora = Instant.now();
+        return JWT.create()
+                .withKeyId(keyId)
+                .withIssuer(issuer)
+                .withSubject(usuario.sub)
+                .withAudience(clientId)
+                .withClaim("token_use", tokenUse)
+                .withClaim("email", usuario.email)
+                .withClaim("name", usuario.nome)
+                .withClaim("cognito:username", usuario.sub)
+                .withIssuedAt(Date.from(agora))
+                .withExpiresAt(Date.from(agora.plus(tokenTtl)))
+                .sign(algorithm);
+    }
+
+    private void simularRede() {
+        if (!latencia.isZero()) {
+            try {
+                Thread.sleep(latencia.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IdentityProviderException(Motivo.INDISPONIVEL, "Interrompido", e);
+            }
+        }
+        if (taxaErro > 0 && ThreadLocalRandom.current().nextDouble() < taxaErro) {
+            throw new IdentityProviderException(Motivo.INDISPONIVEL, "Erro simulado pelo provedor local");
+        }
+    }
+
+    private String gerarTokenOpaco() {
+        byte[] bytes = new byte[32];
+        random.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private static String normalizar(String email) {
+        return email == null ? "" : email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static byte[] semSinal(byte[] bytes) {
+        if (bytes.length > 1 && bytes[0] == 0) {
+            byte[] resultado = new byte[bytes.length - 1];
+            System.arraycopy(bytes, 1, resultado, 0, resultado.length);
+            return resultado;
+        }
+        return bytes;
+    }
+
+    private static String hash(String senha) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return Base64.getEncoder().encodeToString(sha256.digest(String.valueOf(senha).getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static class UsuarioLocal {
+        private final String sub;
+        private final String email;
+        private final String nome;
+        private volatile String senhaHash;
+        private volatile boolean confirmado;
+
+        private UsuarioLocal(String sub, String email, String nome, String senhaHash) {
+            this.sub = sub;
+            this.email = email;
+            this.nome = nome;
+            this.senhaHash = senhaHash;
+        }
+    }
+}
@@ -1,18 +1,49 @@
 package com.pastagem.service.impl;
 
+import com.pastagem.dto.AreaPropriedade;
+import com.pastagem.dto.PainelPropriedade;
+import com.pastagem.dto.PastagemAlteracaoLoteDTO;
+import com.pastagem.dto.PastagemCreateDTO;
+import com.pastagem.dto.PastagemFiltroLoteDTO;
+import com.pastagem.dto.PastagemExportDTO;
+import com.pastagem.dto.CursorPage;
+import com.pastagem.dto.VersaoExportacao;
 import com.pastagem.model.Pastagem;
+import com.pastagem.repository.EstatisticaTabelaRepository;
 import com.pastagem.repository.PastagemRepository;
 import com.pastagem.service.PastagemService;
 import com.pastagem.service.PropriedadeService;
+import com.pastagem.service.RelatorioCache;
+import com.pastagem.util.KeysetCursor;
+import com.pastagem.util.TermoPesquisa;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pastagem.util.NdjsonWriter;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
@@ -21,9 +52,27 @@ public class PastagemServiceImpl implements PastagemService {
     @Autowired
     private PastagemRepository pastagemRepository;
 
+    @Autowired
+    private EstatisticaTabelaRepository estatisticaTabelaRepository;
+
     @Autowired
     private PropriedadeService propriedadeService;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private RelatorioCache relatorioCache;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${pastagem.lote.max-itens:1000}")
+    private int maxItensLote;
+
     // Operações básicas CRUD
     @Override
     @Transactional(readOnly = true)
@@ -31,12 +80,43 @@ public class PastagemServiceImpl implements PastagemService {
         return pastagemRepository.findAll(pageable);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<Pastagem> findAll(KeysetCursor cursor, int size) {
+        Pageable limite = PageRequest.ofSize(size);
+        if (cursor.ordem() == KeysetCursor.Ordem.ATUALIZACAO) {
+            return pastagemRepository.findAposAtualizacao(cursor.updatedAt(), cursor.id(), limite);
+        }
+        return pastagemRepository.findAposId(cursor.id(), limite);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Long estimarTotal() {
+        return estatisticaTabelaRepository.estimarLinhas("pastagem");
+    }
+
     @Override
     @Transactional(readOnly = true)
     public List<Pastagem> findAll() {
         return pastagemRepository.findAll();
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public VersaoExportacao versaoExportacao(Long propriedadeId, String tipoPasto, LocalDateTime desde) {
+        return pastagemRepository.findVersaoExportacao(propriedadeId, textoOuNulo(tipoPasto), desde);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long exportar(Long propriedadeId, String tipoPasto, LocalDateTime desde, OutputStream saida) throws IOException {
+        // O stream só pode ser consumido dentro da transação
+        try (Stream<PastagemExportDTO> linhas = pastagemRepository.streamExportacao(propriedadeId, textoOuNulo(tipoPasto), desde)) {
+            return NdjsonWriter.escrever(linhas, objectMapper, saida);
+        }
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Optional<Pastagem> findById(Long id) {
@@ -64,7 +144,83 @@ public class PastagemServiceImpl implements PastagemService {
         // Validações de negócio
         validarPastagem(pastagem);
         
-        return pastagemRepository.save(pastagem);
+        Pastagem salva = pastagemRepository.save(pastagem);
+        eventPublisher.publishEvent(RelatorioCache.DadosAlterados.pastagens());
+        return salva;
+    }
+
+    @Override
+    public List<Pastagem> saveAll(List<PastagemCreateDTO> pastagens, Long usuarioId) {
+        if (pastagens == null || pastagens.isEmpty()) {
+            throw new IllegalArgumentException("Lote de pastagens vazio");
+        }
+        if (pastagens.size() > maxItensLote) {
+            throw new IllegalArgumentException("Lote deve ter no máximo " + maxItensLote + " pastagens");
+        }
+
+        List<String> erros = new ArrayList<>();
+
+        // Campos de cada item, sem acesso ao banco
+        for (int i = 0; i < pastagens.size(); i++) {
+            PastagemCreateDTO dto = pastagens.get(i);
+            if (dto == null) {
+                erros.add("Item " + i + ": pastagem não pode ser nula");
+                continue;
+            }
+            for (String erro : validarCampos(dto)) {
+                erros.add("Item " + i + ": " + erro);
+            }
+        }
+
+        // Propriedades referenciadas: uma única consulta IN para o lote inteiro, com o resumo
+        // bloqueado até o commit (usuarioId nulo = administrador, sem restrição de dono)
+        Set<Long> referenciadas = new LinkedHashSet<>();
+        pastagens.stream()
+                .filter(dto -> dto != null && dto.getPropriedadeId() != null)
+                .forEach(dto -> referenciadas.add(dto.getPropriedadeId()));
+        Map<Long, AreaPropriedade> areas = propriedadeService.bloquearAreas(referenciadas, usuarioId);
+
+        // Área solicitada por propriedade, somando todos os itens do lote
+        Map<Long, BigDecimal> solicitada = new HashMap<>();
+        List<Pastagem> entidades = new ArrayList<>(pastagens.size());
+        for (int i = 0; i < pastagens.size(); i++) {
+            PastagemCreateDTO dto = pastagens.get(i);
+            if (dto == null || dto.getPropriedadeId() == null) {
+                continue;
+            }
+            if (!areas.containsKey(dto.getPropriedadeId())) {
+                erros.add("Item " + i + ": propriedade " + dto.getPropriedadeId() + " não encontrada");
+                continue;
+            }
+            if (dto.getAreaHectares() != null) {
+                solicitada.merge(dto.getPropriedadeId(), dto.getAreaHectares(), BigDecimal::add);
+            }
+
+            Pastagem pastagem = new Pastagem();
+            pastagem.setNome(dto.getNome());
+            pastagem.setAreaHectares(dto.getAreaHectares());
+            pastagem.setTipoPasto(dto.getTipoPasto());
+            pastagem.setCapacidadeSuporte(dto.getCapacidadeSuporte());
+            pastagem.setPropriedade(propriedadeService.getReferenceById(dto.getPropriedadeId()));
+            entidades.add(pastagem);
+        }
+
+        solicitada.forEach((propriedadeId, acrescimo) -> {
+            try {
+                validarAreaDisponivel(areas.get(propriedadeId), acrescimo);
+            } catch (IllegalArgumentException e) {
+                erros.add(e.getMessage());
+            }
+        });
+
+        if (!erros.isEmpty()) {
+            throw new IllegalArgumentException(String.join("; ", erros.subList(0, Math.min(erros.size(), 50))));
+        }
+
+        // IDs do sequence em blocos (pooled-lo) e INSERTs enviados em batch JDBC
+        List<Pastagem> salvas = pastagemRepository.saveAll(entidades);
+        eventPublisher.publishEvent(RelatorioCache.DadosAlterados.pastagens());
+        return salvas;
     }
 
     @Override
@@ -78,6 +234,100 @@ public class PastagemServiceImpl implements PastagemService {
         }
         
         pastagemRepository.deleteById(id);
+        eventPublisher.publishEvent(RelatorioCache.DadosAlterados.pastagens());
+    }
+
+    @Override
+    public long atualizarEmLote(PastagemAlteracaoLoteDTO alteracao, Long usuarioId) {
+        if (alteracao == null || alteracao.getFiltro() == null) {
+            throw new IllegalArgumentException("Filtro é obrigatório");
+        }
+        String novoTipoPasto = textoOuNulo(alteracao.getTipoPasto());
+        Long novaPropriedadeId = alteracao.getPropriedadeId();
+        if (novoTipoPasto == null && novaPropriedadeId == null) {
+            throw new IllegalArgumentException("Informe o novo tipo de pasto e/ou a nova propriedade");
+        }
+        if (novaPropriedadeId != null
+                && propriedadeService.findIdsExistentes(Set.of(novaPropriedadeId), usuarioId).isEmpty()) {
+            throw new IllegalArgumentException("Propriedade de destino não encontrada");
+        }
+
+        PastagemFiltroLoteDTO filtro = alteracao.getFiltro();
+        LocalDateTime agora = LocalDateTime.now();
+        long afetadas;
+        if (validarFiltroLote(filtro)) {
+            afetadas = pastagemRepository.atualizarPorIds(filtro.getIds(), usuarioId, novoTipoPasto, novaPropriedadeId, agora);
+        } else {
+            afetadas = pastagemRepository.atualizarPorFiltro(filtro.getPropriedadeId(), textoOuNulo(filtro.getTipoPasto()),
+                    usuarioId, novoTipoPasto, novaPropriedadeId, agora);
+        }
+
+        // O trigger já somou as pastagens movidas ao resumo do destino; se a área
+        // estourou, a exceção desfaz o UPDATE inteiro
+        if (novaPropriedadeId != null && afetadas > 0) {
+            AreaPropriedade destino = propriedadeService.buscarAreas(List.of(novaPropriedadeId), null).get(novaPropriedadeId);
+            if (destino.disponivel().signum() < 0) {
+                throw new IllegalArgumentException("Área das pastagens excede a área total da propriedade " + novaPropriedadeId
+                    + " em " + destino.disponivel().negate() + " ha");
+            }
+        }
+        if (afetadas > 0) {
+            eventPublisher.publishEvent(RelatorioCache.DadosAlterados.pastagens());
+        }
+        return afetadas;
+    }
+
+    @Override
+    public long excluirEmLote(PastagemFiltroLoteDTO filtro, Long usuarioId) {
+        if (filtro == null) {
+            throw new IllegalArgumentException("Filtro é obrigatório");
+        }
+        long afetadas = validarFiltroLote(filtro)
+                ? pastagemRepository.excluirPorIds(filtro.getIds(), usuarioId)
+                : pastagemRepository.excluirPorFiltro(filtro.getPropriedadeId(), textoOuNulo(filtro.getTipoPasto()), usuarioId);
+        if (afetadas > 0) {
+            eventPublisher.publishEvent(RelatorioCache.DadosAlterados.pastagens());
+        }
+        return afetadas;
+    }
+
+    /**
+     * @return {@code true} se a seleção é por IDs, {@code false} se é por filtro
+     */
+    private boolean validarFiltroLote(PastagemFiltroLoteDTO filtro) {
+        boolean porIds = filtro.getIds() != null && !filtro.getIds().isEmpty();
+        boolean porFiltro = filtro.getPropriedadeId() != null || textoOuNulo(filtro.getTipoPasto()) != null;
+        if (porIds == porFiltro) {
+            // Sem nenhum critério o comando alcançaria a tabela inteira
+            throw new IllegalArgumentException("Informe a lista de IDs ou o filtro (propriedade e/ou tipo de pasto), não ambos");
+        }
+        if (porIds && filtro.getIds().size() > maxItensLote) {
+            throw new IllegalArgumentException("Lote deve ter no máximo " + maxItensLote + " pastagens");
+        }
+        if (porIds && filtro.getIds().stream().anyMatch(id -> id == null || id <= 0)) {
+            throw new IllegalArgumentException("IDs devem ser números positivos");
+        }
+        return porIds;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<String> validarCampos(PastagemCreateDTO dto) {
+        List<String> erros = new ArrayList<>();
+        for (ConstraintViolation<PastagemCreateDTO> violacao : validator.validate(dto)) {
+            erros.add(violacao.getMessage());
+        }
+        if (erros.isEmpty()) {
+            Pastagem pastagem = new Pastagem();
+            pastagem.setAreaHectares(dto.getAreaHectares());
+            pastagem.setCapacidadeSuporte(dto.getCapacidadeSuporte());
+            try {
+                validarDensidade(pastagem);
+            } catch (IllegalArgumentException e) {
+                erros.add(e.getMessage());
+            }
+        }
+        return erros;
     }
 
     // Operações específicas de busca
@@ -108,6 +358,37 @@ public class PastagemServiceImpl implements PastagemService {
         return pastagemRepository.findByNomeContainingIgnoreCase(nome.trim());
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<Pastagem> pesquisarPorNome(String termo, int page, int size) {
+        String normalizado = TermoPesquisa.normalizar(termo);
+        return pastagemRepository.pesquisarPorNome(normalizado, TermoPesquisa.padraoContem(normalizado),
+                PageRequest.of(Math.max(page, 0), CursorPage.limitarTamanho(size)));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<Pastagem> findByDensidadeBetween(BigDecimal densidadeMin, BigDecimal densidadeMax, int page, int size) {
+        if (densidadeMin == null || densidadeMax == null || densidadeMin.compareTo(BigDecimal.ZERO) < 0 || densidadeMax.compareTo(densidadeMin) < 0) {
+            throw new IllegalArgumentException("Faixa de densidade inválida");
+        }
+        return pastagemRepository.findByDensidadeBetween(densidadeMin, densidadeMax, paginaDensidade(page, size));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<Pastagem> findByPropriedadeIdOrderByDensidadeDesc(Long propriedadeId, int page, int size) {
+        if (propriedadeId == null || propriedadeId <= 0) {
+            throw new IllegalArgumentException("ID da propriedade deve ser um número positivo");
+        }
+        return pastagemRepository.findByPropriedadeIdOrderByDensidadeDesc(propriedadeId, paginaDensidade(page, size));
+    }
+
+    // A ordenação fica na consulta (densidade DESC, id DESC), que segue a ordem do índice
+    private static Pageable paginaDensidade(int page, int size) {
+        return PageRequest.of(Math.max(page, 0), CursorPage.limitarTamanho(size));
+    }
+
     @Override
     @Transactional(readOnly = true)
     public List<Pastagem> findByAreaHectaresBetween(BigDecimal areaMin, BigDecimal areaMax) {
@@ -129,10 +410,9 @@ public class PastagemServiceImpl implements PastagemService {
     // Operações de relatório e análise
     @Override
     @Transactional(readOnly = true)
-    public List<Pastagem> findPastagensComCapacidadeInadequada() {
-        return pastagemRepository.findAll().stream()
-                .filter(pastagem -> !pastagem.isCapacidadeAdequada())
-                .toList();
+    public Slice<Pastagem> findPastagensComCapacidadeInadequada(int page, int size) {
+        // Mesmo critério de Pastagem.isCapacidadeAdequada(), pela coluna densidade indexada
+        return pastagemRepository.findByDensidadeAcimaDe(Pastagem.DENSIDADE_MAXIMA_ADEQUADA, paginaDensidade(page, size));
     }
 
     @Override
@@ -141,11 +421,9 @@ public class PastagemServiceImpl implements PastagemService {
         if (propriedadeId == null || propriedadeId <= 0) {
             return BigDecimal.ZERO;
         }
-        
-        List<Pastagem> pastagens = findByPropriedadeId(propriedadeId);
-        return pastagens.stream()
-                .map(Pastagem::getAreaHectares)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        return propriedadeService.buscarPainel(propriedadeId, null)
+                .map(PainelPropriedade::areaPastagens)
+                .orElse(BigDecimal.ZERO);
     }
 
     @Override
@@ -154,43 +432,36 @@ public class PastagemServiceImpl implements PastagemService {
         if (propriedadeId == null || propriedadeId <= 0) {
             return 0;
         }
-        
-        List<Pastagem> pastagens = findByPropriedadeId(propriedadeId);
-        return pastagens.stream()
-                .mapToInt(Pastagem::getCapacidadeSuporte)
-                .sum();
+        return propriedadeService.buscarPainel(propriedadeId, null)
+                .map(painel -> Math.toIntExact(painel.capacidadeTotal()))
+                .orElse(0);
     }
 
-    @SuppressWarnings("deprecation")
     @Override
     @Transactional(readOnly = true)
     public BigDecimal calcularDensidadeMediaPorPropriedade(Long propriedadeId) {
         if (propriedadeId == null || propriedadeId <= 0) {
             return BigDecimal.ZERO;
         }
-        
-        List<Pastagem> pastagens = findByPropriedadeId(propriedadeId);
-        if (pastagens.isEmpty()) {
-            return BigDecimal.ZERO;
-        }
-        
-        BigDecimal somaDensidades = pastagens.stream()
-                .map(Pastagem::calcularDensidadePorHectare)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        
-        return somaDensidades.divide(BigDecimal.valueOf(pastagens.size()), 2, BigDecimal.ROUND_HALF_UP);
+        return propriedadeService.buscarPainel(propriedadeId, null)
+                .map(PainelPropriedade::densidadeMedia)
+                .orElse(BigDecimal.ZERO);
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<Object[]> relatorioResumoPropriedades() {
-        return pastagemRepository.findResumoPropriedades();
+        return relatorioCache.obter(RelatorioCache.Relatorio.RESUMO_PROPRIEDADES);
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<Object[]> relatorioPorTipoPasto() {
-        return pastagemRepository.findRelatorioPorTipoPasto();
+        return relatorioCache.obter(RelatorioCache.Relatorio.POR_TIPO_PASTO);
+    }
+
+    private static String textoOuNulo(String valor) {
+        return StringUtils.hasText(valor) ? valor.trim() : null;
     }
 
     // Validações de negócio
@@ -215,11 +486,35 @@ public class PastagemServiceImpl implements PastagemService {
             throw new IllegalArgumentException("Propriedade é obrigatória");
         }
         
-        // Verificar se a propriedade existe
-        if (!propriedadeService.existsById(pastagem.getPropriedade().getId())) {
+        validarDensidade(pastagem);
+
+        // Existência da propriedade e área ocupada (resumo), bloqueada até o commit para que
+        // duas gravações simultâneas não validem contra a mesma área disponível
+        Long propriedadeId = pastagem.getPropriedade().getId();
+        AreaPropriedade area = propriedadeService.bloquearAreas(List.of(propriedadeId), null).get(propriedadeId);
+        if (area == null) {
             throw new IllegalArgumentException("Propriedade não encontrada");
         }
-        
+
+        BigDecimal acrescimo = pastagem.getAreaHectares();
+        if (pastagem.getId() != null) {
+            // Em alteração, a área gravada da pastagem já está somada no resumo
+            acrescimo = acrescimo.subtract(pastagemRepository.findAreaHectares(pastagem.getId(), propriedadeId)
+                    .orElse(BigDecimal.ZERO));
+        }
+        validarAreaDisponivel(area, acrescimo);
+    }
+
+    // Só um acréscimo de área é barrado: reduzir ou manter a área de uma pastagem é aceito
+    // mesmo em propriedade que já excede a área total
+    private void validarAreaDisponivel(AreaPropriedade area, BigDecimal acrescimo) {
+        if (acrescimo.signum() > 0 && acrescimo.compareTo(area.disponivel()) > 0) {
+            throw new IllegalArgumentException("Área das pastagens excede a área total da propriedade " + area.propriedadeId()
+                + ": disponível " + area.disponivel().max(BigDecimal.ZERO) + " ha, solicitado " + acrescimo + " ha");
+        }
+    }
+
+    private void validarDensidade(Pastagem pastagem) {
         // Validação de densidade extremamente alta (mais de 10 animais por hectare)
         BigDecimal densidadeMaxima = BigDecimal.valueOf(10.0);
         if (pastagem.calcularDensidadePorHectare().compareTo(densidadeMaxima) > 0) {
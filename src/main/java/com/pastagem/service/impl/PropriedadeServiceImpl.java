@@ -1,20 +1,47 @@
 package com.pastagem.service.impl;
 
+import com.pastagem.dto.AreaPropriedade;
+import com.pastagem.dto.PainelPropriedade;
+import com.pastagem.dto.PropriedadeExportDTO;
+import com.pastagem.dto.CursorPage;
+import com.pastagem.dto.VersaoExportacao;
 import com.pastagem.model.Propriedade;
 import com.pastagem.model.Pastagem;
-import com.pastagem.model.Usuario;
 import com.pastagem.repository.PropriedadeRepository;
+import com.pastagem.repository.PropriedadeResumoRepository;
+import com.pastagem.security.UsuarioPrincipal;
+import com.pastagem.security.UsuarioPrincipalCache;
 import com.pastagem.service.PropriedadeService;
+import com.pastagem.service.RelatorioCache;
 import com.pastagem.service.UsuarioService;
+import com.pastagem.util.KeysetCursor;
+import com.pastagem.util.TermoPesquisa;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pastagem.util.NdjsonWriter;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
@@ -23,9 +50,21 @@ public class PropriedadeServiceImpl implements PropriedadeService {
     @Autowired
     private PropriedadeRepository propriedadeRepository;
 
+    @Autowired
+    private PropriedadeResumoRepository propriedadeResumoRepository;
+
     @Autowired
     private UsuarioService usuarioService;
 
+    @Autowired
+    private UsuarioPrincipalCache usuarioPrincipalCache;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     // Operações básicas CRUD
     @Override
     @Transactional(readOnly = true)
@@ -39,6 +78,26 @@ public class PropriedadeServiceImpl implements PropriedadeService {
         return propriedadeRepository.findAll();
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public VersaoExportacao versaoExportacao(Long usuarioId, String cidade, String estado, LocalDateTime desde) {
+        return propriedadeRepository.findVersaoExportacao(usuarioId, textoOuNulo(cidade), textoOuNulo(estado), desde);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long exportar(Long usuarioId, String cidade, String estado, LocalDateTime desde, OutputStream saida) throws IOException {
+        // O stream só pode ser consumido dentro da transação
+        try (Stream<PropriedadeExportDTO> linhas = propriedadeRepository.streamExportacao(usuarioId,
+                textoOuNulo(cidade), textoOuNulo(estado), desde)) {
+            return NdjsonWriter.escrever(linhas, objectMapper, saida);
+        }
+    }
+
+    private static String textoOuNulo(String valor) {
+        return StringUtils.hasText(valor) ? valor.trim() : null;
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Optional<Propriedade> findById(Long id) {
@@ -57,6 +116,24 @@ public class PropriedadeServiceImpl implements PropriedadeService {
         return propriedadeRepository.existsById(id);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Propriedade getReferenceById(Long id) {
+        if (id == null || id <= 0) {
+            throw new IllegalArgumentException("ID deve ser um número positivo");
+        }
+        return propriedadeRepository.getReferenceById(id);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Set<Long> findIdsExistentes(Collection<Long> ids, Long usuarioId) {
+        if (ids == null || ids.isEmpty()) {
+            return Set.of();
+        }
+        return new HashSet<>(propriedadeRepository.findIdsExistentes(ids, usuarioId));
+    }
+
     @Override
     public Propriedade save(Propriedade propriedade, String userId) {
         if (propriedade == null) {
@@ -65,15 +142,32 @@ public class PropriedadeServiceImpl implements PropriedadeService {
         
         // Validações de negócio
         validarPropriedade(propriedade);
+
+        // A área não pode ficar menor que a soma das pastagens já cadastradas; o bloqueio
+        // do resumo impede que uma pastagem seja incluída durante a verificação
+        AreaPropriedade atual = propriedade.getId() != null
+            ? bloquearAreas(List.of(propriedade.getId()), null).get(propriedade.getId())
+            : null;
+        if (atual != null) {
+            BigDecimal ocupada = atual.areaOcupada();
+            if (ocupada.compareTo(propriedade.getAreaTotal()) > 0) {
+                throw new IllegalArgumentException("Área total (" + propriedade.getAreaTotal()
+                    + " ha) menor que a área das pastagens cadastradas (" + ocupada + " ha)");
+            }
+        }
         
-        // Busca o usuário pelo ID do Cognito
-        Usuario usuario = usuarioService.findByCognitoId(userId)
+        // Resolve o usuário pelo ID do Cognito (cache do principal, sem consultar o banco)
+        UsuarioPrincipal usuario = usuarioPrincipalCache.resolver(userId)
             .orElseThrow(() -> new IllegalArgumentException("Usuário não encontrado"));
 
         // Associa o usuário à propriedade
-        propriedade.setUsuario(usuario);
+        if (!usuario.id().equals(propriedade.getUsuario().getId())) {
+            propriedade.setUsuario(usuarioService.getReferenceById(usuario.id()));
+        }
         
-        return propriedadeRepository.save(propriedade);
+        Propriedade salva = propriedadeRepository.save(propriedade);
+        eventPublisher.publishEvent(RelatorioCache.DadosAlterados.propriedades());
+        return salva;
     }
 
     @Override
@@ -86,13 +180,16 @@ public class PropriedadeServiceImpl implements PropriedadeService {
             throw new IllegalArgumentException("Propriedade não encontrada com ID: " + id);
         }
         
-        // Verificar se há pastagens associadas
-        List<Pastagem> pastagens = findPastagensByPropriedadeId(id);
-        if (!pastagens.isEmpty()) {
+        // Verificar se há pastagens associadas pelo resumo (chave primária), sem carregá-las;
+        // o bloqueio impede que uma pastagem seja incluída antes da exclusão
+        propriedadeResumoRepository.criarResumos(List.of(id));
+        propriedadeResumoRepository.bloquear(List.of(id));
+        if (propriedadeResumoRepository.findTotalPastagens(id).orElse(0L) > 0) {
             throw new RuntimeException("Não é possível excluir propriedade que possui pastagens cadastradas");
         }
         
         propriedadeRepository.deleteById(id);
+        eventPublisher.publishEvent(RelatorioCache.DadosAlterados.propriedades());
     }
 
     // Novos métodos com id_usuario
@@ -105,6 +202,28 @@ public class PropriedadeServiceImpl implements PropriedadeService {
         return propriedadeRepository.findByUsuarioId(usuarioId, pageable);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<Propriedade> findByUsuarioId(Long usuarioId, KeysetCursor cursor, int size) {
+        Pageable limite = PageRequest.ofSize(size);
+        if (usuarioId == null || usuarioId <= 0) {
+            return new SliceImpl<>(List.of(), limite, false);
+        }
+        if (cursor.ordem() == KeysetCursor.Ordem.ATUALIZACAO) {
+            return propriedadeRepository.findByUsuarioIdAposAtualizacao(usuarioId, cursor.updatedAt(), cursor.id(), limite);
+        }
+        return propriedadeRepository.findByUsuarioIdAposId(usuarioId, cursor.id(), limite);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long countByUsuarioId(Long usuarioId) {
+        if (usuarioId == null || usuarioId <= 0) {
+            return 0;
+        }
+        return propriedadeRepository.countByUsuarioId(usuarioId);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Optional<Propriedade> findByIdAndUsuarioId(Long id, Long usuarioId) {
@@ -150,6 +269,14 @@ public class PropriedadeServiceImpl implements PropriedadeService {
         return propriedadeRepository.findByUsuarioIdAndNomeContainingIgnoreCase(usuarioId, nome.trim());
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<Propriedade> pesquisarPorNome(Long usuarioId, String termo, int page, int size) {
+        String normalizado = TermoPesquisa.normalizar(termo);
+        return propriedadeRepository.pesquisarPorNome(usuarioId, normalizado, TermoPesquisa.padraoContem(normalizado),
+                PageRequest.of(Math.max(page, 0), CursorPage.limitarTamanho(size)));
+    }
+
     @Override
     @Transactional(readOnly = true)
     public List<Propriedade> findByUsuarioIdAndCidadeAndEstado(Long usuarioId, String cidade, String estado) {
@@ -223,7 +350,7 @@ public class PropriedadeServiceImpl implements PropriedadeService {
         if (propriedadeId == null || propriedadeId <= 0) {
             return 0;
         }
-        return propriedadeRepository.countPastagensByPropriedadeId(propriedadeId);
+        return buscarPainel(propriedadeId, null).map(PainelPropriedade::totalPastagens).orElse(0L);
     }
 
     @Override
@@ -232,7 +359,42 @@ public class PropriedadeServiceImpl implements PropriedadeService {
         if (propriedadeId == null || propriedadeId <= 0) {
             return BigDecimal.ZERO;
         }
-        return propriedadeRepository.calcularAreaTotalPastagens(propriedadeId);
+        return buscarPainel(propriedadeId, null).map(PainelPropriedade::areaPastagens).orElse(BigDecimal.ZERO);
+    }
+
+    // usuarioId nulo = administrador, sem restrição de dono
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<PainelPropriedade> buscarPainel(Long propriedadeId, Long usuarioId) {
+        if (propriedadeId == null || propriedadeId <= 0) {
+            return Optional.empty();
+        }
+        return propriedadeResumoRepository.findPainel(propriedadeId, usuarioId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<Long, AreaPropriedade> buscarAreas(Collection<Long> ids, Long usuarioId) {
+        if (ids == null || ids.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, AreaPropriedade> areas = new HashMap<>();
+        for (AreaPropriedade area : propriedadeResumoRepository.findAreas(ids, usuarioId)) {
+            areas.put(area.propriedadeId(), area);
+        }
+        return areas;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Map<Long, AreaPropriedade> bloquearAreas(Collection<Long> ids, Long usuarioId) {
+        if (ids == null || ids.isEmpty()) {
+            return Map.of();
+        }
+        // Quem esperou pelo bloqueio lê a área ocupada já com o commit da outra transação
+        propriedadeResumoRepository.criarResumos(ids);
+        propriedadeResumoRepository.bloquear(ids);
+        return buscarAreas(ids, usuarioId);
     }
 
     // Validações de negócio
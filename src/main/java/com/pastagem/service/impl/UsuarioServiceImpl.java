@@ -1,19 +1,40 @@
 package com.pastagem.service.impl;
 
+import com.pastagem.dto.UsuarioConflito;
+import com.pastagem.dto.UsuarioExportDTO;
+import com.pastagem.dto.CursorPage;
+import com.pastagem.dto.VersaoExportacao;
 import com.pastagem.model.Usuario;
 import com.pastagem.model.Propriedade;
 import com.pastagem.model.Cargo;
+import com.pastagem.repository.EstatisticaTabelaRepository;
 import com.pastagem.repository.UsuarioRepository;
+import com.pastagem.security.UsuarioPrincipalCache;
 import com.pastagem.service.UsuarioService;
-import com.pastagem.service.CognitoService;
+import com.pastagem.service.CognitoOutboxService;
+import com.pastagem.util.KeysetCursor;
+import com.pastagem.util.TermoPesquisa;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pastagem.util.NdjsonWriter;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
@@ -23,7 +44,19 @@ public class UsuarioServiceImpl implements UsuarioService {
     private UsuarioRepository usuarioRepository;
 
     @Autowired
-    private CognitoService cognitoService;
+    private EstatisticaTabelaRepository estatisticaTabelaRepository;
+
+    @Autowired
+    private CognitoOutboxService cognitoOutboxService;
+
+    @Autowired
+    private UsuarioPrincipalCache usuarioPrincipalCache;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Validator validator;
 
     // Operações básicas CRUD
     @Override
@@ -32,12 +65,43 @@ public class UsuarioServiceImpl implements UsuarioService {
         return usuarioRepository.findAll(pageable);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<Usuario> findAll(KeysetCursor cursor, int size) {
+        Pageable limite = PageRequest.ofSize(size);
+        if (cursor.ordem() == KeysetCursor.Ordem.ATUALIZACAO) {
+            return usuarioRepository.findAposAtualizacao(cursor.updatedAt(), cursor.id(), limite);
+        }
+        return usuarioRepository.findAposId(cursor.id(), limite);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Long estimarTotal() {
+        return estatisticaTabelaRepository.estimarLinhas("usuario");
+    }
+
     @Override
     @Transactional(readOnly = true)
     public List<Usuario> findAll() {
         return usuarioRepository.findAll();
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public VersaoExportacao versaoExportacao(Cargo cargo, LocalDateTime desde) {
+        return usuarioRepository.findVersaoExportacao(cargo, desde);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long exportar(Cargo cargo, LocalDateTime desde, OutputStream saida) throws IOException {
+        // O stream só pode ser consumido dentro da transação
+        try (Stream<UsuarioExportDTO> linhas = usuarioRepository.streamExportacao(cargo, desde)) {
+            return NdjsonWriter.escrever(linhas, objectMapper, saida);
+        }
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Optional<Usuario> findById(Long id) {
@@ -47,6 +111,15 @@ public class UsuarioServiceImpl implements UsuarioService {
         return usuarioRepository.findById(id);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Usuario getReferenceById(Long id) {
+        if (id == null || id <= 0) {
+            throw new IllegalArgumentException("ID deve ser um número positivo");
+        }
+        return usuarioRepository.getReferenceById(id);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public boolean existsById(Long id) {
@@ -64,7 +137,8 @@ public class UsuarioServiceImpl implements UsuarioService {
         
         // Validações de negócio
         validarUsuario(usuario);
-        
+
+        usuarioPrincipalCache.invalidar(usuario.getCognitoId());
         return usuarioRepository.save(usuario);
     }
 
@@ -92,16 +166,32 @@ public class UsuarioServiceImpl implements UsuarioService {
             
             // Excluir do banco de dados
             usuarioRepository.deleteById(id);
+            usuarioPrincipalCache.invalidar(usuario.getCognitoId());
             
-            // Excluir do Cognito
-            try {
-                cognitoService.deleteUserFromCognito(email);
-            } catch (Exception e) {
-                // Log do erro mas não interrompe a operação
-                // O usuário já foi excluído do banco de dados
-                e.printStackTrace();
-            }
+            // Exclusão no Cognito vai para o outbox, na mesma transação
+            cognitoOutboxService.enfileirarExclusao(email);
+        }
+    }
+
+    @Override
+    public Optional<Usuario> update(Long id, Usuario usuario) {
+        Optional<Usuario> usuarioExistente = findById(id);
+        if (usuarioExistente.isEmpty()) {
+            return Optional.empty();
+        }
+
+        String emailAntigo = usuarioExistente.get().getEmail();
+        boolean emailAlterado = usuario.getEmail() != null && !emailAntigo.equalsIgnoreCase(usuario.getEmail().trim());
+
+        usuario.setId(id);
+        usuario.setCognitoId(usuarioExistente.get().getCognitoId()); // Mantém o cognitoId original
+        Usuario usuarioAtualizado = save(usuario);
+
+        // Se o email foi alterado, atualizar no Cognito pelo outbox
+        if (emailAlterado) {
+            cognitoOutboxService.enfileirarAtualizacao(emailAntigo, usuario.getEmail().trim().toLowerCase(), usuario.getNome());
         }
+        return Optional.of(usuarioAtualizado);
     }
 
     // Operações específicas de busca
@@ -150,6 +240,29 @@ public class UsuarioServiceImpl implements UsuarioService {
         return usuarioRepository.existsByEmailIgnoreCase(email.trim());
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public void verificarDuplicidade(String cpf, String email, Long idIgnorado) {
+        String cpfNormalizado = cpf == null ? "" : cpf.trim();
+        String emailNormalizado = email == null ? "" : email.trim();
+        String sufixo = idIgnorado == null ? "" : " para outro usuário";
+
+        List<UsuarioConflito> conflitos = usuarioRepository.findConflitos(cpfNormalizado, emailNormalizado);
+        for (UsuarioConflito conflito : conflitos) {
+            if (conflito.id().equals(idIgnorado)) {
+                continue;
+            }
+            if (cpfNormalizado.equals(conflito.cpf())) {
+                throw new IllegalArgumentException("CPF já cadastrado" + sufixo);
+            }
+        }
+        for (UsuarioConflito conflito : conflitos) {
+            if (!conflito.id().equals(idIgnorado) && emailNormalizado.equalsIgnoreCase(conflito.email())) {
+                throw new IllegalArgumentException("Email já cadastrado" + sufixo);
+            }
+        }
+    }
+
     @Override
     @Transactional(readOnly = true)
     public List<Usuario> findByNomeContaining(String nome) {
@@ -159,6 +272,14 @@ public class UsuarioServiceImpl implements UsuarioService {
         return usuarioRepository.findByNomeContainingIgnoreCase(nome.trim());
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<Usuario> pesquisarPorNome(String termo, int page, int size) {
+        String normalizado = TermoPesquisa.normalizar(termo);
+        return usuarioRepository.pesquisarPorNome(normalizado, TermoPesquisa.padraoContem(normalizado),
+                PageRequest.of(Math.max(page, 0), CursorPage.limitarTamanho(size)));
+    }
+
     @Override
     @Transactional(readOnly = true)
     public List<Usuario> findByCargo(Cargo cargo) {
@@ -187,39 +308,37 @@ public class UsuarioServiceImpl implements UsuarioService {
         return usuarioRepository.countPropriedadesByUsuarioId(usuarioId);
     }
 
-    // Validações de negócio
-    private void validarUsuario(Usuario usuario) {
+    @Override
+    public List<String> validarCampos(Usuario usuario) {
+        usuario.normalizar();
+        List<String> erros = new ArrayList<>();
         if (usuario.getNome() == null || usuario.getNome().trim().isEmpty()) {
-            throw new IllegalArgumentException("Nome é obrigatório");
+            erros.add("Nome é obrigatório");
         }
-        
         if (usuario.getCpf() == null || !usuario.isValidCpf()) {
-            throw new IllegalArgumentException("CPF inválido");
+            erros.add("CPF inválido");
         }
-        
         if (usuario.getEmail() == null || !usuario.isValidEmail()) {
-            throw new IllegalArgumentException("Email inválido");
+            erros.add("Email inválido");
         }
-        
-        // Verificar duplicidade apenas para novos usuários ou alteração de dados únicos
-        if (usuario.getId() == null) {
-            if (existsByCpf(usuario.getCpf())) {
-                throw new IllegalArgumentException("CPF já cadastrado");
-            }
-            if (existsByEmail(usuario.getEmail())) {
-                throw new IllegalArgumentException("Email já cadastrado");
-            }
-        } else {
-            // Para atualizações, verificar se CPF/email não pertencem a outro usuário
-            Optional<Usuario> usuarioExistenteCpf = findByCpf(usuario.getCpf());
-            if (usuarioExistenteCpf.isPresent() && !usuarioExistenteCpf.get().getId().equals(usuario.getId())) {
-                throw new IllegalArgumentException("CPF já cadastrado para outro usuário");
-            }
-            
-            Optional<Usuario> usuarioExistenteEmail = findByEmail(usuario.getEmail());
-            if (usuarioExistenteEmail.isPresent() && !usuarioExistenteEmail.get().getId().equals(usuario.getId())) {
-                throw new IllegalArgumentException("Email já cadastrado para outro usuário");
-            }
+        // As mesmas restrições que o Hibernate aplicaria ao gravar, em ordem estável
+        validator.validate(usuario).stream()
+                .sorted(Comparator.comparing((ConstraintViolation<Usuario> v) -> v.getPropertyPath().toString())
+                        .thenComparing(ConstraintViolation::getMessage))
+                .map(ConstraintViolation::getMessage)
+                .filter(mensagem -> !erros.contains(mensagem))
+                .forEach(erros::add);
+        return erros;
+    }
+
+    // Validações de negócio
+    private void validarUsuario(Usuario usuario) {
+        List<String> erros = validarCampos(usuario);
+        if (!erros.isEmpty()) {
+            throw new IllegalArgumentException(erros.get(0));
         }
+
+        // Para atualizações, o próprio usuário não conta como duplicidade
+        verificarDuplicidade(usuario.getCpf(), usuario.getEmail(), usuario.getId());
     }
 }
\ No newline at end of file
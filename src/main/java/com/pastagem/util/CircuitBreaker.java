@@ -0,0 +1,86 @@
+package com.pastagem.util;
+
+import java.time.Duration;
+
+/**
+ * Circuit breaker por falhas consecutivas.
+ *
+ * Fechado, deixa passar tudo. Após {@code limiteFalhas} falhas seguidas abre e
+ * recusa chamadas durante {@code tempoAberto}; depois disso libera uma única
+ * chamada de teste (meio aberto), que fecha o circuito se der certo ou o reabre
+ * se falhar.
+ */
+public class CircuitBreaker {
+
+    public enum Estado {
+        FECHADO,
+        ABERTO,
+        MEIO_ABERTO
+    }
+
+    private final int limiteFalhas;
+    private final long tempoAberto;
+
+    private Estado estado = Estado.FECHADO;
+    private int falhasConsecutivas;
+    private long abertoEm;
+    private boolean testeEmAndamento;
+
+    public CircuitBreaker(int limiteFalhas, Duration tempoAberto) {
+        if (limiteFalhas < 1) {
+            throw new IllegalArgumentException("O limite de falhas deve ser positivo");
+        }
+        this.limiteFalhas = limiteFalhas;
+        this.tempoAberto = tempoAberto.toNanos();
+    }
+
+    /**
+     * Indica se uma chamada pode seguir. Toda chamada permitida deve terminar em
+     * {@link #registrarSucesso()}, {@link #registrarFalha()} ou {@link #liberar()}.
+     */
+    public synchronized boolean permitir() {
+        switch (estado) {
+            case FECHADO:
+                return true;
+            case ABERTO:
+                if (System.nanoTime() - abertoEm < tempoAberto) {
+                    return false;
+                }
+                estado = Estado.MEIO_ABERTO;
+                testeEmAndamento = true;
+                return true;
+            default:
+                if (testeEmAndamento) {
+                    return false;
+                }
+                testeEmAndamento = true;
+                return true;
+        }
+    }
+
+    public synchronized void registrarSucesso() {
+        estado = Estado.FECHADO;
+        falhasConsecutivas = 0;
+        testeEmAndamento = false;
+    }
+
+    public synchronized void registrarFalha() {
+        testeEmAndamento = false;
+        if (estado == Estado.MEIO_ABERTO || ++falhasConsecutivas >= limiteFalhas) {
+            estado = Estado.ABERTO;
+            abertoEm = System.nanoTime();
+            falhasConsecutivas = 0;
+        }
+    }
+
+    /**
+     * Devolve uma permissão que não chegou a ser usada, sem contar sucesso nem falha.
+     */
+    public synchronized void liberar() {
+        testeEmAndamento = false;
+    }
+
+    public synchronized Estado getEstado() {
+        return estado;
+    }
+}
@@ -0,0 +1,84 @@
+package com.pastagem.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.Locale;
+
+/**
+ * Posição em uma listagem paginada por keyset, serializada como cursor opaco.
+ *
+ * A ordem vai dentro do cursor, então o cliente só escolhe a ordem na primeira
+ * página e depois apenas repassa o {@code nextCursor} recebido.
+ */
+public record KeysetCursor(Ordem ordem, LocalDateTime updatedAt, long id) {
+
+    public enum Ordem {
+        // (id)
+        ID,
+        // (updatedAt, id)
+        ATUALIZACAO
+    }
+
+    // Anterior a qualquer registro; o timestamp do PostgreSQL vai até 4713 a.C.
+    private static final LocalDateTime INICIO = LocalDateTime.of(1, 1, 1, 0, 0);
+
+    public static KeysetCursor inicio(Ordem ordem) {
+        return new KeysetCursor(ordem, INICIO, 0L);
+    }
+
+    public static KeysetCursor apos(Ordem ordem, LocalDateTime updatedAt, Long id) {
+        return new KeysetCursor(ordem, updatedAt != null ? updatedAt : INICIO, id);
+    }
+
+    /**
+     * Converte o parâmetro {@code ordem} da requisição ({@code id} ou {@code atualizacao}).
+     */
+    public static Ordem ordem(String valor) {
+        if (valor == null || valor.isBlank()) {
+            return Ordem.ID;
+        }
+        try {
+            return Ordem.valueOf(valor.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Ordem inválida. Use id ou atualizacao");
+        }
+    }
+
+    /**
+     * Posição pedida na requisição: o cursor recebido ou, sem ele, o início na ordem informada.
+     */
+    public static KeysetCursor de(String cursor, String ordem) {
+        if (cursor == null || cursor.isBlank()) {
+            return inicio(ordem(ordem));
+        }
+        return decodificar(cursor);
+    }
+
+    public String codificar() {
+        String valor = ordem == Ordem.ID ? "i:" + id : "u:" + updatedAt + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException se o cursor não foi gerado por {@link #codificar()}
+     */
+    public static KeysetCursor decodificar(String cursor) {
+        try {
+            String valor = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (valor.startsWith("i:")) {
+                return new KeysetCursor(Ordem.ID, INICIO, Long.parseLong(valor.substring(2)));
+            }
+            if (valor.startsWith("u:")) {
+                int separador = valor.lastIndexOf(':');
+                return new KeysetCursor(Ordem.ATUALIZACAO,
+                        LocalDateTime.parse(valor.substring(2, separador)),
+                        Long.parseLong(valor.substring(separador + 1)));
+            }
+        } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+            // cai no erro abaixo
+        }
+        throw new IllegalArgumentException("Cursor inválido");
+    }
+}
@@ -0,0 +1,47 @@
+package com.pastagem.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Separação de linhas CSV usada pelas importações.
+ */
+public final class LeitorCsv {
+
+    public static final String BOM = "\uFEFF";
+
+    private LeitorCsv() {
+    }
+
+    /**
+     * Campos separados por qualquer um dos {@code separadores}; aspas duplas
+     * delimitam campos e "" é uma aspa literal.
+     */
+    public static List<String> separar(String linha, String separadores) {
+        List<String> campos = new ArrayList<>();
+        StringBuilder atual = new StringBuilder();
+        boolean entreAspas = false;
+        for (int i = 0; i < linha.length(); i++) {
+            char c = linha.charAt(i);
+            if (entreAspas) {
+                if (c == '"' && i + 1 < linha.length() && linha.charAt(i + 1) == '"') {
+                    atual.append('"');
+                    i++;
+                } else if (c == '"') {
+                    entreAspas = false;
+                } else {
+                    atual.append(c);
+                }
+            } else if (c == '"') {
+                entreAspas = true;
+            } else if (separadores.indexOf(c) >= 0) {
+                campos.add(atual.toString());
+                atual.setLength(0);
+            } else {
+                atual.append(c);
+            }
+        }
+        campos.add(atual.toString());
+        return campos;
+    }
+}
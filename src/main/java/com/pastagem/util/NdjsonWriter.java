@@ -0,0 +1,45 @@
+package com.pastagem.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * Escreve um {@link Stream} como NDJSON (um objeto JSON por linha), sem
+ * acumular os elementos em memória.
+ */
+public final class NdjsonWriter {
+
+    public static final String MEDIA_TYPE = "application/x-ndjson";
+
+    private NdjsonWriter() {
+    }
+
+    /**
+     * @return quantidade de linhas escritas
+     */
+    public static <T> long escrever(Stream<T> linhas, ObjectMapper objectMapper, OutputStream saida) throws IOException {
+        JsonGenerator gerador = objectMapper.getFactory().createGenerator(saida);
+        gerador.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        // O separador padrão entre valores raiz é " "; as linhas já são separadas por '\n'
+        gerador.setRootValueSeparator(null);
+        // O buffer do gerador e o da resposta decidem quando enviar, não cada linha
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+        long total = 0;
+        Iterator<T> iterator = linhas.iterator();
+        while (iterator.hasNext()) {
+            writer.writeValue(gerador, iterator.next());
+            gerador.writeRaw('\n');
+            total++;
+        }
+        gerador.flush();
+        return total;
+    }
+}
@@ -0,0 +1,32 @@
+package com.pastagem.util;
+
+/**
+ * Normaliza o termo das pesquisas por nome (índices de trigramas) e monta o
+ * padrão de LIKE correspondente, com os curingas do usuário escapados.
+ */
+public final class TermoPesquisa {
+
+    public static final int TAMANHO_MAXIMO = 100;
+
+    private TermoPesquisa() {
+    }
+
+    public static String normalizar(String termo) {
+        if (termo == null || termo.isBlank()) {
+            throw new IllegalArgumentException("Termo de pesquisa é obrigatório");
+        }
+        String normalizado = termo.trim().replaceAll("\\s+", " ");
+        if (normalizado.length() > TAMANHO_MAXIMO) {
+            throw new IllegalArgumentException("Termo de pesquisa deve ter no máximo " + TAMANHO_MAXIMO + " caracteres");
+        }
+        return normalizado;
+    }
+
+    /**
+     * Padrão "contém" para LIKE; o termo já deve estar normalizado.
+     */
+    public static String padraoContem(String termo) {
+        String escapado = termo.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+        return "%" + escapado + "%";
+    }
+}
@@ -0,0 +1,53 @@
+package com.pastagem.util;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket sem locks, implementado como GCRA (generic cell rate algorithm).
+ *
+ * Todo o estado é um único instante teórico de chegada ({@code tat}) em
+ * nanossegundos, atualizado por CAS: cada permissão empurra o {@code tat} em um
+ * intervalo de reposição e a requisição é recusada quando ele passaria de
+ * {@code capacidade} intervalos à frente do relógio.
+ */
+public class TokenBucket {
+
+    private final long intervalo;
+    private final long tolerancia;
+    private final AtomicLong tat;
+
+    /**
+     * @param capacidade quantidade de permissões que podem ser usadas em rajada
+     * @param reposicao  tempo para repor uma permissão
+     */
+    public TokenBucket(int capacidade, Duration reposicao) {
+        if (capacidade < 1 || reposicao.isNegative() || reposicao.isZero()) {
+            throw new IllegalArgumentException("Capacidade e reposição devem ser positivas");
+        }
+        this.intervalo = reposicao.toNanos();
+        this.tolerancia = intervalo * capacidade;
+        this.tat = new AtomicLong(System.nanoTime());
+    }
+
+    /**
+     * Tenta consumir uma permissão.
+     *
+     * @return {@link Duration#ZERO} se permitido, senão o tempo até haver uma permissão disponível
+     */
+    public Duration tentarConsumir() {
+        while (true) {
+            long agora = System.nanoTime();
+            long atual = tat.get();
+            long base = agora - atual > 0 ? agora : atual;
+            long proximo = base + intervalo;
+            long excesso = proximo - agora - tolerancia;
+            if (excesso > 0) {
+                return Duration.ofNanos(excesso);
+            }
+            if (tat.compareAndSet(atual, proximo)) {
+                return Duration.ZERO;
+            }
+        }
+    }
+}
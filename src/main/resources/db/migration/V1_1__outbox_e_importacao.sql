@@ -0,0 +1,42 @@
+-- Tabelas criadas depois do esquema da baseline (outbox do Cognito e importação de
+-- usuários). Ficam fora do V1 para que bancos com baseline na versão 1 também as recebam.
+
+CREATE TABLE IF NOT EXISTS cognito_outbox (
+    id                 bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    created_at         timestamp(6)  NOT NULL,
+    updated_at         timestamp(6)  NOT NULL,
+    operacao           varchar(30)   NOT NULL CHECK (operacao IN ('EXCLUIR_USUARIO', 'ATUALIZAR_ATRIBUTOS')),
+    email              varchar(100)  NOT NULL,
+    novo_email         varchar(100),
+    nome               varchar(100),
+    status             varchar(20)   NOT NULL CHECK (status IN ('PENDENTE', 'PROCESSANDO', 'FALHOU')),
+    tentativas         integer       NOT NULL,
+    proxima_tentativa  timestamp(6)  NOT NULL,
+    ultimo_erro        varchar(1000)
+);
+
+CREATE TABLE IF NOT EXISTS importacao_usuarios (
+    id                      bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    created_at              timestamp(6) NOT NULL,
+    updated_at              timestamp(6) NOT NULL,
+    status                  varchar(20)  NOT NULL CHECK (status IN ('PROCESSANDO', 'CONCLUIDA', 'INTERROMPIDA')),
+    total_linhas            integer      NOT NULL,
+    id_usuario_responsavel  bigint       NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS importacao_usuario_item (
+    id             bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    created_at     timestamp(6) NOT NULL,
+    updated_at     timestamp(6) NOT NULL,
+    id_importacao  bigint       NOT NULL,
+    linha          integer      NOT NULL,
+    email          varchar(100),
+    status         varchar(20)  NOT NULL CHECK (status IN ('PROVISIONADO', 'CRIADO', 'ERRO')),
+    mensagem       varchar(500),
+    cognito_id     varchar(255),
+    CONSTRAINT uk_importacao_item_linha UNIQUE (id_importacao, linha),
+    CONSTRAINT fk_importacaoitem_importacao FOREIGN KEY (id_importacao) REFERENCES importacao_usuarios (id)
+);
+
+-- A importação já é coberta por uk_importacao_item_linha
+CREATE INDEX IF NOT EXISTS idx_cognito_outbox_status_proxima ON cognito_outbox (status, proxima_tentativa);
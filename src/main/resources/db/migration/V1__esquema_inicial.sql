@@ -0,0 +1,43 @@
+-- Esquema equivalente ao que o Hibernate (ddl-auto=update) criava.
+-- Bancos já existentes entram com baseline na versão 1 e não executam este script;
+-- por isso ele contém só as tabelas que já existiam nesses bancos.
+
+CREATE TABLE IF NOT EXISTS usuario (
+    id          bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    created_at  timestamp(6) NOT NULL,
+    updated_at  timestamp(6) NOT NULL,
+    nome        varchar(100) NOT NULL,
+    cpf         varchar(14)  NOT NULL,
+    telefone    varchar(20)  NOT NULL,
+    email       varchar(100) NOT NULL,
+    cargo       varchar(255) NOT NULL CHECK (cargo IN ('ADMIN', 'PRODUTOR')),
+    cognito_id  varchar(255),
+    CONSTRAINT uk_usuario_cpf UNIQUE (cpf),
+    CONSTRAINT uk_usuario_email UNIQUE (email),
+    CONSTRAINT uk_usuario_cognito_id UNIQUE (cognito_id)
+);
+
+CREATE TABLE IF NOT EXISTS propriedade (
+    id          bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    created_at  timestamp(6)   NOT NULL,
+    updated_at  timestamp(6)   NOT NULL,
+    nome        varchar(100)   NOT NULL,
+    endereco    varchar(200)   NOT NULL,
+    area_total  numeric(10, 2) NOT NULL,
+    cidade      varchar(100)   NOT NULL,
+    estado      varchar(50)    NOT NULL,
+    id_usuario  bigint         NOT NULL,
+    CONSTRAINT fk_propriedade_usuario FOREIGN KEY (id_usuario) REFERENCES usuario (id)
+);
+
+CREATE TABLE IF NOT EXISTS pastagem (
+    id                  bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    created_at          timestamp(6)   NOT NULL,
+    updated_at          timestamp(6)   NOT NULL,
+    nome                varchar(100)   NOT NULL,
+    area_hectares       numeric(10, 2) NOT NULL,
+    tipo_pasto          varchar(100)   NOT NULL,
+    capacidade_suporte  integer        NOT NULL,
+    id_propriedade      bigint         NOT NULL,
+    CONSTRAINT fk_pastagem_propriedade FOREIGN KEY (id_propriedade) REFERENCES propriedade (id)
+);
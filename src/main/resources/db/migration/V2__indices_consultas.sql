@@ -0,0 +1,19 @@
+-- Índices das consultas dos repositórios. O PostgreSQL não indexa chaves estrangeiras
+-- por conta própria, e os métodos *IgnoreCase do Spring Data comparam com upper(...).
+
+-- Pastagem
+CREATE INDEX IF NOT EXISTS idx_pastagem_propriedade_id ON pastagem (id_propriedade, id);
+CREATE INDEX IF NOT EXISTS idx_pastagem_updated_at_id ON pastagem (updated_at, id);
+CREATE INDEX IF NOT EXISTS idx_pastagem_tipo_pasto_upper ON pastagem (upper(tipo_pasto));
+CREATE INDEX IF NOT EXISTS idx_pastagem_area_hectares ON pastagem (area_hectares);
+CREATE INDEX IF NOT EXISTS idx_pastagem_capacidade_suporte ON pastagem (capacidade_suporte);
+
+-- Propriedade (as buscas por usuário usam id_usuario como prefixo seletivo)
+CREATE INDEX IF NOT EXISTS idx_propriedade_usuario_id ON propriedade (id_usuario, id);
+CREATE INDEX IF NOT EXISTS idx_propriedade_usuario_updated_at_id ON propriedade (id_usuario, updated_at, id);
+CREATE INDEX IF NOT EXISTS idx_propriedade_cidade_estado_upper ON propriedade (upper(cidade), upper(estado));
+CREATE INDEX IF NOT EXISTS idx_propriedade_estado_upper ON propriedade (upper(estado));
+
+-- Usuário (cpf, email e cognito_id já têm índice pelas restrições UNIQUE)
+CREATE INDEX IF NOT EXISTS idx_usuario_updated_at_id ON usuario (updated_at, id);
+CREATE INDEX IF NOT EXISTS idx_usuario_email_lower ON usuario (lower(email));
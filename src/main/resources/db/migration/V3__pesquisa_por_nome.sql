@@ -0,0 +1,23 @@
+-- Pesquisa por nome: trigramas sem acentos, para nomes em português
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE EXTENSION IF NOT EXISTS unaccent;
+
+-- unaccent() é STABLE; o wrapper com dicionário explícito pode ser IMMUTABLE e entrar em índices
+CREATE OR REPLACE FUNCTION f_unaccent(text) RETURNS text
+    LANGUAGE sql IMMUTABLE PARALLEL SAFE STRICT
+    AS $$ SELECT public.unaccent('public.unaccent'::regdictionary, $1) $$;
+
+CREATE INDEX IF NOT EXISTS idx_pastagem_nome_trgm
+    ON pastagem USING gin (f_unaccent(lower(nome)) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_propriedade_nome_trgm
+    ON propriedade USING gin (f_unaccent(lower(nome)) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_usuario_nome_trgm
+    ON usuario USING gin (f_unaccent(lower(nome)) gin_trgm_ops);
+
+-- findBy*NomeContainingIgnoreCase (upper(nome) LIKE '%...%') também usa trigramas
+CREATE INDEX IF NOT EXISTS idx_pastagem_nome_upper_trgm
+    ON pastagem USING gin (upper(nome) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_propriedade_nome_upper_trgm
+    ON propriedade USING gin (upper(nome) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_usuario_nome_upper_trgm
+    ON usuario USING gin (upper(nome) gin_trgm_ops);
@@ -0,0 +1,40 @@
+-- IDs passam de IDENTITY para sequences por tabela com incremento 50, como o
+-- Hibernate espera (allocationSize padrão) com o otimizador pooled-lo.
+-- O DEFAULT nextval(...) mantém válidos os INSERTs feitos fora do Hibernate:
+-- cada chamada reserva um bloco inteiro, então não colide com os blocos da aplicação.
+
+CREATE SEQUENCE IF NOT EXISTS usuario_seq INCREMENT BY 50;
+SELECT setval('usuario_seq', COALESCE((SELECT max(id) FROM usuario), 0) + 1, false);
+ALTER TABLE usuario ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE usuario ALTER COLUMN id SET DEFAULT nextval('usuario_seq');
+ALTER SEQUENCE usuario_seq OWNED BY usuario.id;
+
+CREATE SEQUENCE IF NOT EXISTS propriedade_seq INCREMENT BY 50;
+SELECT setval('propriedade_seq', COALESCE((SELECT max(id) FROM propriedade), 0) + 1, false);
+ALTER TABLE propriedade ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE propriedade ALTER COLUMN id SET DEFAULT nextval('propriedade_seq');
+ALTER SEQUENCE propriedade_seq OWNED BY propriedade.id;
+
+CREATE SEQUENCE IF NOT EXISTS pastagem_seq INCREMENT BY 50;
+SELECT setval('pastagem_seq', COALESCE((SELECT max(id) FROM pastagem), 0) + 1, false);
+ALTER TABLE pastagem ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE pastagem ALTER COLUMN id SET DEFAULT nextval('pastagem_seq');
+ALTER SEQUENCE pastagem_seq OWNED BY pastagem.id;
+
+CREATE SEQUENCE IF NOT EXISTS cognito_outbox_seq INCREMENT BY 50;
+SELECT setval('cognito_outbox_seq', COALESCE((SELECT max(id) FROM cognito_outbox), 0) + 1, false);
+ALTER TABLE cognito_outbox ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE cognito_outbox ALTER COLUMN id SET DEFAULT nextval('cognito_outbox_seq');
+ALTER SEQUENCE cognito_outbox_seq OWNED BY cognito_outbox.id;
+
+CREATE SEQUENCE IF NOT EXISTS importacao_usuarios_seq INCREMENT BY 50;
+SELECT setval('importacao_usuarios_seq', COALESCE((SELECT max(id) FROM importacao_usuarios), 0) + 1, false);
+ALTER TABLE importacao_usuarios ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE importacao_usuarios ALTER COLUMN id SET DEFAULT nextval('importacao_usuarios_seq');
+ALTER SEQUENCE importacao_usuarios_seq OWNED BY importacao_usuarios.id;
+
+CREATE SEQUENCE IF NOT EXISTS importacao_usuario_item_seq INCREMENT BY 50;
+SELECT setval('importacao_usuario_item_seq', COALESCE((SELECT max(id) FROM importacao_usuario_item), 0) + 1, false);
+ALTER TABLE importacao_usuario_item ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE importacao_usuario_item ALTER COLUMN id SET DEFAULT nextval('importacao_usuario_item_seq');
+ALTER SEQUENCE importacao_usuario_item_seq OWNED BY importacao_usuario_item.id;
@@ -0,0 +1,86 @@
+-- Agregados de pastagens por propriedade, mantidos por trigger na mesma transação
+-- de cada INSERT/UPDATE/DELETE em pastagem (inclusive COPY e comandos em lote,
+-- que não passam pelo Hibernate). Totais, médias e a regra de área passam a ser
+-- uma leitura pela chave primária em vez de varrer as pastagens da propriedade.
+--
+-- soma_densidades acumula round(capacidade_suporte / area_hectares, 2) de cada
+-- pastagem, o mesmo arredondamento de Pastagem.calcularDensidadePorHectare().
+
+CREATE TABLE IF NOT EXISTS propriedade_resumo (
+    id_propriedade    bigint         PRIMARY KEY,
+    total_pastagens   bigint         NOT NULL DEFAULT 0,
+    area_pastagens    numeric(14, 2) NOT NULL DEFAULT 0,
+    capacidade_total  bigint         NOT NULL DEFAULT 0,
+    soma_densidades   numeric(18, 2) NOT NULL DEFAULT 0,
+    CONSTRAINT fk_propriedade_resumo_propriedade FOREIGN KEY (id_propriedade)
+        REFERENCES propriedade (id) ON DELETE CASCADE
+);
+
+INSERT INTO propriedade_resumo (id_propriedade, total_pastagens, area_pastagens, capacidade_total, soma_densidades)
+SELECT id_propriedade, count(*), sum(area_hectares), sum(capacidade_suporte),
+       sum(round(capacidade_suporte / area_hectares, 2))
+FROM pastagem
+GROUP BY id_propriedade
+ON CONFLICT (id_propriedade) DO NOTHING;
+
+-- Triggers por comando com tabelas de transição: um COPY ou UPDATE de milhares de
+-- linhas aplica um único delta agregado por propriedade, não um por linha.
+-- Os deltas são aplicados em ordem de id_propriedade para evitar deadlock entre
+-- transações que alteram as mesmas propriedades.
+CREATE OR REPLACE FUNCTION propriedade_resumo_atualizar() RETURNS trigger
+    LANGUAGE plpgsql
+    AS $$
+BEGIN
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        UPDATE propriedade_resumo r
+        SET total_pastagens  = r.total_pastagens  - d.total,
+            area_pastagens   = r.area_pastagens   - d.area,
+            capacidade_total = r.capacidade_total - d.capacidade,
+            soma_densidades  = r.soma_densidades  - d.densidades
+        FROM (
+            SELECT id_propriedade, count(*) AS total, sum(area_hectares) AS area,
+                   sum(capacidade_suporte) AS capacidade,
+                   sum(round(capacidade_suporte / area_hectares, 2)) AS densidades
+            FROM antigas
+            GROUP BY id_propriedade
+            ORDER BY id_propriedade
+        ) d
+        WHERE r.id_propriedade = d.id_propriedade;
+    END IF;
+
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        INSERT INTO propriedade_resumo AS r
+            (id_propriedade, total_pastagens, area_pastagens, capacidade_total, soma_densidades)
+        SELECT id_propriedade, count(*), sum(area_hectares), sum(capacidade_suporte),
+               sum(round(capacidade_suporte / area_hectares, 2))
+        FROM novas
+        GROUP BY id_propriedade
+        ORDER BY id_propriedade
+        ON CONFLICT (id_propriedade) DO UPDATE
+        SET total_pastagens  = r.total_pastagens  + EXCLUDED.total_pastagens,
+            area_pastagens   = r.area_pastagens   + EXCLUDED.area_pastagens,
+            capacidade_total = r.capacidade_total + EXCLUDED.capacidade_total,
+            soma_densidades  = r.soma_densidades  + EXCLUDED.soma_densidades;
+    END IF;
+
+    RETURN NULL;
+END
+$$;
+
+DROP TRIGGER IF EXISTS trg_pastagem_resumo_insert ON pastagem;
+CREATE TRIGGER trg_pastagem_resumo_insert
+    AFTER INSERT ON pastagem
+    REFERENCING NEW TABLE AS novas
+    FOR EACH STATEMENT EXECUTE FUNCTION propriedade_resumo_atualizar();
+
+DROP TRIGGER IF EXISTS trg_pastagem_resumo_update ON pastagem;
+CREATE TRIGGER trg_pastagem_resumo_update
+    AFTER UPDATE ON pastagem
+    REFERENCING OLD TABLE AS antigas NEW TABLE AS novas
+    FOR EACH STATEMENT EXECUTE FUNCTION propriedade_resumo_atualizar();
+
+DROP TRIGGER IF EXISTS trg_pastagem_resumo_delete ON pastagem;
+CREATE TRIGGER trg_pastagem_resumo_delete
+    AFTER DELETE ON pastagem
+    REFERENCING OLD TABLE AS antigas
+    FOR EACH STATEMENT EXECUTE FUNCTION propriedade_resumo_atualizar();
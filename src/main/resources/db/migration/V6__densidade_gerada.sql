@@ -0,0 +1,12 @@
+-- Densidade (animais por hectare) como coluna gerada, com o mesmo arredondamento
+-- de Pastagem.calcularDensidadePorHectare(). Indexada, ela atende as consultas de
+-- capacidade inadequada, faixa de densidade e ranking por propriedade com varreduras
+-- de intervalo no índice, em vez de avaliar a expressão em todas as linhas.
+-- O COPY da importação lista as colunas explicitamente, então não é afetado.
+
+ALTER TABLE pastagem
+    ADD COLUMN IF NOT EXISTS densidade numeric(14, 2)
+    GENERATED ALWAYS AS (round(capacidade_suporte / area_hectares, 2)) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_pastagem_densidade_id ON pastagem (densidade, id);
+CREATE INDEX IF NOT EXISTS idx_pastagem_propriedade_densidade ON pastagem (id_propriedade, densidade, id);
@@ -0,0 +1,75 @@
+-- Corrige o comentário da V5: o ORDER BY na subconsulta de um UPDATE ... FROM (ou
+-- de um INSERT ... ON CONFLICT) não define a ordem em que as linhas de
+-- propriedade_resumo são bloqueadas, e no UPDATE de pastagem os deltas das
+-- propriedades antigas são aplicados antes dos das novas. Duas transações que movem
+-- pastagens A -> B e B -> A podiam bloquear A e B em ordens opostas e entrar em
+-- deadlock.
+--
+-- Agora a trigger cria as linhas de resumo que faltam e bloqueia todas as
+-- propriedades afetadas (antigas ∪ novas) em ordem de id_propriedade antes de
+-- aplicar qualquer delta. Os deltas em si não mudam.
+CREATE OR REPLACE FUNCTION propriedade_resumo_atualizar() RETURNS trigger
+    LANGUAGE plpgsql
+    AS $$
+BEGIN
+    -- Cada trigger só expõe as tabelas de transição que declara
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        INSERT INTO propriedade_resumo (id_propriedade)
+        SELECT DISTINCT id_propriedade FROM novas ORDER BY id_propriedade
+        ON CONFLICT (id_propriedade) DO NOTHING;
+    END IF;
+
+    IF TG_OP = 'INSERT' THEN
+        PERFORM 1 FROM propriedade_resumo
+        WHERE id_propriedade IN (SELECT id_propriedade FROM novas)
+        ORDER BY id_propriedade
+        FOR UPDATE;
+    ELSIF TG_OP = 'DELETE' THEN
+        PERFORM 1 FROM propriedade_resumo
+        WHERE id_propriedade IN (SELECT id_propriedade FROM antigas)
+        ORDER BY id_propriedade
+        FOR UPDATE;
+    ELSE
+        PERFORM 1 FROM propriedade_resumo
+        WHERE id_propriedade IN (SELECT id_propriedade FROM antigas
+                                 UNION
+                                 SELECT id_propriedade FROM novas)
+        ORDER BY id_propriedade
+        FOR UPDATE;
+    END IF;
+
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        UPDATE propriedade_resumo r
+        SET total_pastagens  = r.total_pastagens  - d.total,
+            area_pastagens   = r.area_pastagens   - d.area,
+            capacidade_total = r.capacidade_total - d.capacidade,
+            soma_densidades  = r.soma_densidades  - d.densidades
+        FROM (
+            SELECT id_propriedade, count(*) AS total, sum(area_hectares) AS area,
+                   sum(capacidade_suporte) AS capacidade,
+                   sum(round(capacidade_suporte / area_hectares, 2)) AS densidades
+            FROM antigas
+            GROUP BY id_propriedade
+        ) d
+        WHERE r.id_propriedade = d.id_propriedade;
+    END IF;
+
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        UPDATE propriedade_resumo r
+        SET total_pastagens  = r.total_pastagens  + d.total,
+            area_pastagens   = r.area_pastagens   + d.area,
+            capacidade_total = r.capacidade_total + d.capacidade,
+            soma_densidades  = r.soma_densidades  + d.densidades
+        FROM (
+            SELECT id_propriedade, count(*) AS total, sum(area_hectares) AS area,
+                   sum(capacidade_suporte) AS capacidade,
+                   sum(round(capacidade_suporte / area_hectares, 2)) AS densidades
+            FROM novas
+            GROUP BY id_propriedade
+        ) d
+        WHERE r.id_propriedade = d.id_propriedade;
+    END IF;
+
+    RETURN NULL;
+END
+$$;
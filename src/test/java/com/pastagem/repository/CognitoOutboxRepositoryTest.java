@@ -0,0 +1,95 @@
+package com.pastagem.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Import;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.pastagem.config.JpaConfig;
+import com.pastagem.model.CognitoOutbox;
+import com.pastagem.model.CognitoOutbox.Operacao;
+import com.pastagem.model.CognitoOutbox.Status;
+
+/**
+ * Ordem por conta na reserva do outbox: um item só sai quando nenhum item anterior
+ * ainda na tabela cita o mesmo e-mail, antigo ou novo.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(JpaConfig.class)
+@Testcontainers(disabledWithoutDocker = true)
+class CognitoOutboxRepositoryTest {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    private CognitoOutboxRepository repository;
+
+    private final LocalDateTime agora = LocalDateTime.now();
+
+    @Test
+    void itemPosteriorDaMesmaContaEsperaOAnterior() {
+        CognitoOutbox alteracao = gravar(Operacao.ATUALIZAR_ATRIBUTOS, "ana@x.com", "ana.nova@x.com", Status.PENDENTE, agora);
+        CognitoOutbox exclusao = gravar(Operacao.EXCLUIR_USUARIO, "Ana.Nova@x.com", null, Status.PENDENTE, agora);
+        CognitoOutbox outraConta = gravar(Operacao.EXCLUIR_USUARIO, "bia@x.com", null, Status.PENDENTE, agora);
+
+        assertThat(ids(repository.reservarLote(agora, 10))).containsExactly(alteracao.getId(), outraConta.getId());
+
+        repository.delete(alteracao);
+        repository.flush();
+
+        assertThat(ids(repository.reservarLote(agora, 10))).containsExactly(exclusao.getId(), outraConta.getId());
+    }
+
+    @Test
+    void itemAguardandoNovaTentativaSeguraOsSeguintes() {
+        gravar(Operacao.ATUALIZAR_ATRIBUTOS, "caio@x.com", null, Status.PENDENTE, agora.plusMinutes(5));
+        gravar(Operacao.EXCLUIR_USUARIO, "caio@x.com", null, Status.PENDENTE, agora);
+
+        assertThat(repository.reservarLote(agora, 10)).isEmpty();
+    }
+
+    @Test
+    void itemFalhouInterrompeASequenciaDaConta() {
+        gravar(Operacao.ATUALIZAR_ATRIBUTOS, "duda@x.com", "duda2@x.com", Status.FALHOU, agora);
+        gravar(Operacao.ATUALIZAR_ATRIBUTOS, "duda2@x.com", null, Status.PENDENTE, agora);
+        CognitoOutbox outraConta = gravar(Operacao.EXCLUIR_USUARIO, "edu@x.com", null, Status.PENDENTE, agora);
+
+        assertThat(ids(repository.reservarLote(agora, 10))).containsExactly(outraConta.getId());
+    }
+
+    @Test
+    void processandoComPrazoVencidoVoltaAFila() {
+        CognitoOutbox interrompido = gravar(Operacao.EXCLUIR_USUARIO, "fabi@x.com", null, Status.PROCESSANDO, agora.minusMinutes(1));
+        gravar(Operacao.EXCLUIR_USUARIO, "gui@x.com", null, Status.PROCESSANDO, agora.plusMinutes(1));
+
+        assertThat(ids(repository.reservarLote(agora, 10))).containsExactly(interrompido.getId());
+    }
+
+    private CognitoOutbox gravar(Operacao operacao, String email, String novoEmail, Status status,
+                                 LocalDateTime proximaTentativa) {
+        return repository.saveAndFlush(CognitoOutbox.builder()
+                .operacao(operacao)
+                .email(email)
+                .novoEmail(novoEmail)
+                .status(status)
+                .proximaTentativa(proximaTentativa)
+                .build());
+    }
+
+    private static List<Long> ids(List<CognitoOutbox> itens) {
+        return itens.stream().map(CognitoOutbox::getId).toList();
+    }
+}
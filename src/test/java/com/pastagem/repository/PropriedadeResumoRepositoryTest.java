@@ -0,0 +1,164 @@
+package com.pastagem.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.pastagem.config.JpaConfig;
+import com.pastagem.dto.AreaPropriedade;
+import com.pastagem.dto.PainelPropriedade;
+
+/**
+ * Agregados de propriedade_resumo mantidos pelos triggers da V5. As pastagens são
+ * gravadas por SQL, como fazem a importação (COPY) e as operações em lote.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(JpaConfig.class)
+@Testcontainers(disabledWithoutDocker = true)
+class PropriedadeResumoRepositoryTest {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    private PropriedadeResumoRepository repository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long origem;
+    private long destino;
+
+    @BeforeEach
+    void criarPropriedades() {
+        long usuario = jdbcTemplate.queryForObject("""
+                INSERT INTO usuario (created_at, updated_at, nome, cpf, telefone, email, cargo)
+                VALUES (now(), now(), 'Produtor', '12345678901', '41999990000', 'produtor@x.com', 'PRODUTOR')
+                RETURNING id
+                """, Long.class);
+        origem = criarPropriedade(usuario, "100.00");
+        destino = criarPropriedade(usuario, "50.00");
+    }
+
+    @Test
+    void insertEmLoteSomaUmDeltaPorPropriedade() {
+        jdbcTemplate.update("""
+                INSERT INTO pastagem (created_at, updated_at, nome, area_hectares, tipo_pasto, capacidade_suporte, id_propriedade)
+                VALUES (now(), now(), 'A', 10.00, 'Braquiária', 15, ?),
+                       (now(), now(), 'B', 3.00, 'Tifton', 10, ?),
+                       (now(), now(), 'C', 4.00, 'Tifton', 2, ?)
+                """, origem, origem, destino);
+
+        assertResumo(origem, 2, "13.00", 25, "4.83");
+        assertResumo(destino, 1, "4.00", 2, "0.50");
+    }
+
+    @Test
+    void updateAplicaDiferencaEMoveEntrePropriedades() {
+        long a = inserirPastagem(origem, "10.00", 15);
+        long b = inserirPastagem(origem, "3.00", 10);
+
+        jdbcTemplate.update("UPDATE pastagem SET area_hectares = 5.00 WHERE id = ?", a);
+        assertResumo(origem, 2, "8.00", 25, "6.33");
+
+        jdbcTemplate.update("UPDATE pastagem SET id_propriedade = ? WHERE id = ?", destino, b);
+        assertResumo(origem, 1, "5.00", 15, "3.00");
+        assertResumo(destino, 1, "3.00", 10, "3.33");
+    }
+
+    @Test
+    void deleteZeraOsAgregados() {
+        inserirPastagem(origem, "10.00", 15);
+        inserirPastagem(origem, "3.00", 10);
+
+        jdbcTemplate.update("DELETE FROM pastagem WHERE id_propriedade = ?", origem);
+
+        assertResumo(origem, 0, "0.00", 0, "0.00");
+    }
+
+    @Test
+    void somaDeDensidadesConfereComColunaGerada() {
+        inserirPastagem(origem, "7.00", 10);
+        inserirPastagem(origem, "2.50", 9);
+        jdbcTemplate.update("UPDATE pastagem SET capacidade_suporte = capacidade_suporte + 1");
+
+        BigDecimal somaGerada = jdbcTemplate.queryForObject(
+                "SELECT sum(densidade) FROM pastagem WHERE id_propriedade = ?", BigDecimal.class, origem);
+        assertThat(resumo(origem).get("soma_densidades")).isEqualTo(somaGerada);
+    }
+
+    @Test
+    void areasEPainelLeemOResumo() {
+        inserirPastagem(origem, "10.00", 15);
+        inserirPastagem(origem, "3.00", 10);
+
+        List<AreaPropriedade> areas = repository.findAreas(List.of(origem, destino), null);
+        assertThat(areas).extracting(AreaPropriedade::propriedadeId, AreaPropriedade::disponivel)
+                .containsExactlyInAnyOrder(
+                        tuple(origem, new BigDecimal("87.00")),
+                        tuple(destino, new BigDecimal("50.00")));
+
+        PainelPropriedade painel = repository.findPainel(origem, null).orElseThrow();
+        assertThat(painel.totalPastagens()).isEqualTo(2L);
+        assertThat(painel.capacidadeTotal()).isEqualTo(25L);
+        assertThat(painel.densidadeMedia()).isEqualByComparingTo("2.42");
+        assertThat(painel.densidadeMaxima()).isEqualByComparingTo("3.33");
+        assertThat(repository.findTotalPastagens(destino)).isEmpty();
+    }
+
+    @Test
+    void bloqueioCriaResumoDePropriedadeSemPastagens() {
+        repository.criarResumos(List.of(destino));
+
+        assertThat(repository.bloquear(List.of(origem, destino))).containsExactly(destino);
+        assertThat(repository.findTotalPastagens(destino)).contains(0L);
+
+        inserirPastagem(destino, "4.00", 8);
+        assertResumo(destino, 1, "4.00", 8, "2.00");
+    }
+
+    private long criarPropriedade(long usuario, String areaTotal) {
+        return jdbcTemplate.queryForObject("""
+                INSERT INTO propriedade (created_at, updated_at, nome, endereco, area_total, cidade, estado, id_usuario)
+                VALUES (now(), now(), 'Fazenda', 'Estrada 1', ?, 'Ponta Grossa', 'PR', ?)
+                RETURNING id
+                """, Long.class, new BigDecimal(areaTotal), usuario);
+    }
+
+    private long inserirPastagem(long propriedade, String area, int capacidade) {
+        return jdbcTemplate.queryForObject("""
+                INSERT INTO pastagem (created_at, updated_at, nome, area_hectares, tipo_pasto, capacidade_suporte, id_propriedade)
+                VALUES (now(), now(), 'Piquete', ?, 'Braquiária', ?, ?)
+                RETURNING id
+                """, Long.class, new BigDecimal(area), capacidade, propriedade);
+    }
+
+    private Map<String, Object> resumo(long propriedade) {
+        return jdbcTemplate.queryForMap("SELECT * FROM propriedade_resumo WHERE id_propriedade = ?", propriedade);
+    }
+
+    private void assertResumo(long propriedade, long total, String area, long capacidade, String somaDensidades) {
+        Map<String, Object> resumo = resumo(propriedade);
+        assertThat(((Number) resumo.get("total_pastagens")).longValue()).isEqualTo(total);
+        assertThat((BigDecimal) resumo.get("area_pastagens")).isEqualByComparingTo(area);
+        assertThat(((Number) resumo.get("capacidade_total")).longValue()).isEqualTo(capacidade);
+        assertThat((BigDecimal) resumo.get("soma_densidades")).isEqualByComparingTo(somaDensidades);
+    }
+}
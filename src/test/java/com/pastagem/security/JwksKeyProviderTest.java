@@ -0,0 +1,86 @@
+package com.pastagem.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.security.KeyPairGenerator;
+import java.security.interfaces.RSAPublicKey;
+import java.time.Duration;
+import java.util.Base64;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.pastagem.service.IdentityProvider;
+
+class JwksKeyProviderTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final IdentityProvider identityProvider = mock(IdentityProvider.class);
+    private JwksKeyProvider provider;
+
+    @BeforeEach
+    void criarProvider() {
+        provider = new JwksKeyProvider(identityProvider, objectMapper, Duration.ofMinutes(5));
+        ReflectionTestUtils.setField(provider, "tempoLimiteBusca", Duration.ofSeconds(5));
+        ReflectionTestUtils.setField(provider, "intervaloMinimoBusca", Duration.ofMinutes(1));
+    }
+
+    @Test
+    void kidDesconhecidoAposBuscaConcluidaFicaEmCacheNegativo() throws Exception {
+        when(identityProvider.jwks()).thenReturn(jwks());
+
+        assertThat(provider.getAlgorithm("antigo")).isNull();
+        liberarNovaBusca();
+        assertThat(provider.getAlgorithm("antigo")).isNull();
+
+        verify(identityProvider, times(1)).jwks();
+    }
+
+    @Test
+    void kidRecusadoSemBuscaNaoEntraNoCacheNegativo() throws Exception {
+        when(identityProvider.jwks()).thenReturn(jwks("atual"), jwks("atual", "rotacionado"));
+
+        assertThat(provider.getAlgorithm("atual")).isNotNull();
+        // Dentro do intervalo mínimo: nenhuma busca, e o kid não pode ficar marcado
+        assertThat(provider.getAlgorithm("rotacionado")).isNull();
+        verify(identityProvider, times(1)).jwks();
+
+        liberarNovaBusca();
+        assertThat(provider.getAlgorithm("rotacionado")).isNotNull();
+        verify(identityProvider, times(2)).jwks();
+    }
+
+    private void liberarNovaBusca() {
+        ReflectionTestUtils.setField(provider, "ultimaBusca", System.nanoTime() - Duration.ofMinutes(2).toNanos());
+    }
+
+    private JsonNode jwks(String... kids) throws Exception {
+        KeyPairGenerator gerador = KeyPairGenerator.getInstance("RSA");
+        gerador.initialize(2048);
+        ObjectNode documento = objectMapper.createObjectNode();
+        for (String kid : kids) {
+            RSAPublicKey chave = (RSAPublicKey) gerador.generateKeyPair().getPublic();
+            documento.withArray("keys").addObject()
+                    .put("kid", kid)
+                    .put("kty", "RSA")
+                    .put("n", base64Url(chave.getModulus().toByteArray()))
+                    .put("e", base64Url(chave.getPublicExponent().toByteArray()));
+        }
+        if (kids.length == 0) {
+            documento.putArray("keys");
+        }
+        return documento;
+    }
+
+    private static String base64Url(byte[] bytes) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
@@ -0,0 +1,69 @@
+package com.pastagem.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.pastagem.service.IdentityProviderException.Motivo;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class CognitoGatewayTest {
+
+    private final IdentityProvider identityProvider = mock(IdentityProvider.class);
+    private final CognitoGateway gateway = new CognitoGateway(identityProvider, new SimpleMeterRegistry(),
+            2, 8, Duration.ofSeconds(2), Duration.ofSeconds(2), 2, Duration.ofHours(1));
+
+    @AfterEach
+    void encerrar() {
+        gateway.encerrar();
+    }
+
+    @Test
+    void requisicoesInvalidasNaoAbremOCircuito() {
+        when(identityProvider.usuarioExiste("x@x.com"))
+                .thenThrow(new IdentityProviderException(Motivo.REQUISICAO_INVALIDA, "Invalid parameter"));
+
+        for (int i = 0; i < 5; i++) {
+            assertMotivo(Motivo.REQUISICAO_INVALIDA);
+        }
+        verify(identityProvider, times(5)).usuarioExiste("x@x.com");
+    }
+
+    @Test
+    void errosNaoClassificadosNaoAbremOCircuito() {
+        when(identityProvider.usuarioExiste("x@x.com")).thenThrow(new IllegalStateException("inesperado"));
+
+        for (int i = 0; i < 5; i++) {
+            assertMotivo(Motivo.DESCONHECIDO);
+        }
+        verify(identityProvider, times(5)).usuarioExiste("x@x.com");
+    }
+
+    @Test
+    void indisponibilidadeAbreOCircuito() {
+        when(identityProvider.usuarioExiste("x@x.com"))
+                .thenThrow(new IdentityProviderException(Motivo.INDISPONIVEL, "Service unavailable"));
+
+        assertMotivo(Motivo.INDISPONIVEL);
+        assertMotivo(Motivo.INDISPONIVEL);
+
+        assertThatThrownBy(() -> CognitoGateway.aguardar(gateway.usuarioExiste("x@x.com")))
+                .hasMessageContaining("circuito aberto");
+        verify(identityProvider, times(2)).usuarioExiste("x@x.com");
+    }
+
+    private void assertMotivo(Motivo motivo) {
+        assertThatThrownBy(() -> CognitoGateway.aguardar(gateway.usuarioExiste("x@x.com")))
+                .isInstanceOfSatisfying(IdentityProviderException.class,
+                        e -> assertThat(e.getMotivo()).isEqualTo(motivo));
+    }
+}
@@ -0,0 +1,77 @@
+package com.pastagem.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+class CircuitBreakerTest {
+
+    @Test
+    void abreAposLimiteDeFalhasConsecutivas() {
+        CircuitBreaker breaker = new CircuitBreaker(3, Duration.ofHours(1));
+
+        for (int i = 0; i < 2; i++) {
+            assertThat(breaker.permitir()).isTrue();
+            breaker.registrarFalha();
+        }
+        assertThat(breaker.getEstado()).isEqualTo(CircuitBreaker.Estado.FECHADO);
+
+        assertThat(breaker.permitir()).isTrue();
+        breaker.registrarFalha();
+
+        assertThat(breaker.getEstado()).isEqualTo(CircuitBreaker.Estado.ABERTO);
+        assertThat(breaker.permitir()).isFalse();
+    }
+
+    @Test
+    void sucessoZeraFalhasConsecutivas() {
+        CircuitBreaker breaker = new CircuitBreaker(2, Duration.ofHours(1));
+
+        breaker.registrarFalha();
+        breaker.registrarSucesso();
+        breaker.registrarFalha();
+
+        assertThat(breaker.getEstado()).isEqualTo(CircuitBreaker.Estado.FECHADO);
+    }
+
+    @Test
+    void meioAbertoLiberaUmaUnicaChamadaDeTeste() {
+        CircuitBreaker breaker = new CircuitBreaker(1, Duration.ZERO);
+        breaker.registrarFalha();
+
+        assertThat(breaker.permitir()).isTrue();
+        assertThat(breaker.getEstado()).isEqualTo(CircuitBreaker.Estado.MEIO_ABERTO);
+        assertThat(breaker.permitir()).isFalse();
+
+        breaker.registrarSucesso();
+        assertThat(breaker.getEstado()).isEqualTo(CircuitBreaker.Estado.FECHADO);
+        assertThat(breaker.permitir()).isTrue();
+    }
+
+    @Test
+    void falhaNoTesteReabreCircuito() {
+        CircuitBreaker breaker = new CircuitBreaker(5, Duration.ZERO);
+        for (int i = 0; i < 5; i++) {
+            breaker.registrarFalha();
+        }
+
+        assertThat(breaker.permitir()).isTrue();
+        breaker.registrarFalha();
+
+        assertThat(breaker.getEstado()).isEqualTo(CircuitBreaker.Estado.ABERTO);
+    }
+
+    @Test
+    void liberarDevolveChamadaDeTesteSemFecharCircuito() {
+        CircuitBreaker breaker = new CircuitBreaker(1, Duration.ZERO);
+        breaker.registrarFalha();
+
+        assertThat(breaker.permitir()).isTrue();
+        breaker.liberar();
+
+        assertThat(breaker.getEstado()).isEqualTo(CircuitBreaker.Estado.MEIO_ABERTO);
+        assertThat(breaker.permitir()).isTrue();
+    }
+}
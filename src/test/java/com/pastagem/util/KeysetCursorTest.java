@@ -0,0 +1,75 @@
+package com.pastagem.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import org.junit.jupiter.api.Test;
+
+class KeysetCursorTest {
+
+    @Test
+    void codificaEDecodificaOrdemPorId() {
+        KeysetCursor cursor = KeysetCursor.apos(KeysetCursor.Ordem.ID, null, 42L);
+
+        KeysetCursor decodificado = KeysetCursor.decodificar(cursor.codificar());
+
+        assertThat(decodificado.ordem()).isEqualTo(KeysetCursor.Ordem.ID);
+        assertThat(decodificado.id()).isEqualTo(42L);
+    }
+
+    @Test
+    void codificaEDecodificaOrdemPorAtualizacaoComMicrossegundos() {
+        LocalDateTime updatedAt = LocalDateTime.of(2024, 3, 5, 10, 15, 30, 123_456_000);
+        KeysetCursor cursor = KeysetCursor.apos(KeysetCursor.Ordem.ATUALIZACAO, updatedAt, 7L);
+
+        assertThat(KeysetCursor.decodificar(cursor.codificar())).isEqualTo(cursor);
+    }
+
+    @Test
+    void cursorEhSeguroParaUrl() {
+        KeysetCursor cursor = KeysetCursor.apos(KeysetCursor.Ordem.ATUALIZACAO, LocalDateTime.now(), Long.MAX_VALUE);
+
+        assertThat(cursor.codificar()).matches("[A-Za-z0-9_-]+");
+    }
+
+    @Test
+    void semCursorComecaDoInicioNaOrdemPedida() {
+        KeysetCursor cursor = KeysetCursor.de(null, "atualizacao");
+
+        assertThat(cursor.ordem()).isEqualTo(KeysetCursor.Ordem.ATUALIZACAO);
+        assertThat(cursor.id()).isZero();
+        assertThat(cursor.updatedAt()).isBefore(LocalDateTime.of(1970, 1, 1, 0, 0));
+        assertThat(KeysetCursor.de(" ", null).ordem()).isEqualTo(KeysetCursor.Ordem.ID);
+    }
+
+    @Test
+    void ordemDoCursorPrevaleceSobreParametro() {
+        String cursor = KeysetCursor.apos(KeysetCursor.Ordem.ID, null, 10L).codificar();
+
+        assertThat(KeysetCursor.de(cursor, "atualizacao").ordem()).isEqualTo(KeysetCursor.Ordem.ID);
+    }
+
+    @Test
+    void rejeitaOrdemDesconhecida() {
+        assertThatThrownBy(() -> KeysetCursor.ordem("nome"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Ordem inválida. Use id ou atualizacao");
+    }
+
+    @Test
+    void rejeitaCursorAdulterado() {
+        String semPrefixo = Base64.getUrlEncoder().encodeToString("x:1".getBytes(StandardCharsets.UTF_8));
+        String dataInvalida = Base64.getUrlEncoder().encodeToString("u:ontem:1".getBytes(StandardCharsets.UTF_8));
+        String idInvalido = Base64.getUrlEncoder().encodeToString("i:abc".getBytes(StandardCharsets.UTF_8));
+
+        for (String cursor : new String[] {"%%%", semPrefixo, dataInvalida, idInvalido}) {
+            assertThatThrownBy(() -> KeysetCursor.decodificar(cursor))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("Cursor inválido");
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.pastagem.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class NdjsonWriterTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void escreveUmObjetoPorLinhaSemSeparadorExtra() throws Exception {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+
+        long total = NdjsonWriter.escrever(Stream.of(Map.of("a", 1), Map.of("a", 2), Map.of("a", 3)), objectMapper, saida);
+
+        assertThat(total).isEqualTo(3);
+        assertThat(saida.toByteArray())
+                .isEqualTo("{\"a\":1}\n{\"a\":2}\n{\"a\":3}\n".getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void streamVazioNaoEscreveNada() throws Exception {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+
+        assertThat(NdjsonWriter.escrever(Stream.empty(), objectMapper, saida)).isZero();
+        assertThat(saida.size()).isZero();
+    }
+
+    @Test
+    void naoFechaASaida() throws Exception {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream() {
+            @Override
+            public void close() {
+                throw new AssertionError("a saída é da resposta HTTP e não deve ser fechada");
+            }
+        };
+
+        NdjsonWriter.escrever(Stream.of(Map.of("a", 1)), objectMapper, saida);
+
+        assertThat(saida.toString(StandardCharsets.UTF_8)).isEqualTo("{\"a\":1}\n");
+    }
+}
@@ -0,0 +1,76 @@
+package com.pastagem.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+class TokenBucketTest {
+
+    @Test
+    void permiteRajadaAteCapacidadeERecusaDepois() {
+        TokenBucket bucket = new TokenBucket(3, Duration.ofHours(1));
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(bucket.tentarConsumir()).isEqualTo(Duration.ZERO);
+        }
+
+        Duration espera = bucket.tentarConsumir();
+        assertThat(espera).isPositive().isLessThanOrEqualTo(Duration.ofHours(1));
+    }
+
+    @Test
+    void repoePermissaoAposIntervalo() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(1, Duration.ofMillis(50));
+
+        assertThat(bucket.tentarConsumir()).isEqualTo(Duration.ZERO);
+        assertThat(bucket.tentarConsumir()).isPositive();
+
+        Thread.sleep(80);
+        assertThat(bucket.tentarConsumir()).isEqualTo(Duration.ZERO);
+    }
+
+    @Test
+    void naoConcedeMaisQueCapacidadeSobConcorrencia() throws Exception {
+        int capacidade = 100;
+        TokenBucket bucket = new TokenBucket(capacidade, Duration.ofHours(1));
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Callable<Integer>> tarefas = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                tarefas.add(() -> {
+                    int concedidas = 0;
+                    for (int i = 0; i < 50; i++) {
+                        if (bucket.tentarConsumir().isZero()) {
+                            concedidas++;
+                        }
+                    }
+                    return concedidas;
+                });
+            }
+            int total = 0;
+            for (Future<Integer> resultado : executor.invokeAll(tarefas)) {
+                total += resultado.get();
+            }
+            assertThat(total).isEqualTo(capacidade);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void rejeitaParametrosInvalidos() {
+        assertThatThrownBy(() -> new TokenBucket(0, Duration.ofSeconds(1)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new TokenBucket(1, Duration.ZERO))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}